@@ -0,0 +1,174 @@
+package org.bukkit.configuration;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 预先编译的配置路径.
+ * <p>
+ * 路径在创建时就被拆分为各层的键, 因此可以作为常量保存并反复用于
+ * {@link ConfigurationSection} 中接受 ConfigPath 的方法, 查询时无需再拆分字符串或分配对象.
+ * 与字符串路径不同, ConfigPath 中的每个键都是独立的, 不依赖于配置的
+ * {@link ConfigurationOptions#pathSeparator() 路径分隔符}.
+ * <p>
+ * 例如:
+ * <pre>
+ * private static final ConfigPath MULTIPLIER = ConfigPath.of("rewards.multiplier");
+ *
+ * double multiplier = getConfig().getDouble(MULTIPLIER);
+ * </pre>
+ */
+public final class ConfigPath {
+    /**
+     * {@link #of(String)} 使用的默认路径分隔符.
+     */
+    public static final char DEFAULT_SEPARATOR = '.';
+
+    private final String[] keys;
+    private final int hash;
+
+    private ConfigPath(@NotNull String[] keys) {
+        this.keys = keys;
+        this.hash = Arrays.hashCode(keys);
+    }
+
+    /**
+     * 以 {@code .} 为分隔符编译一个路径.
+     * <p>
+     * 原文：
+     * Compiles a path using {@code .} as the separator.
+     *
+     * @param path 路径, 不能为空
+     * @return 编译后的路径
+     */
+    @NotNull
+    public static ConfigPath of(@NotNull String path) {
+        return of(path, DEFAULT_SEPARATOR);
+    }
+
+    /**
+     * 以给定的分隔符编译一个路径.
+     * <p>
+     * 路径中的每个键都不能为空, 例如 {@code "a..b"} 或 {@code "a."} 不是有效的路径.
+     * 需要空键时请使用 {@link #ofKeys(String...)}.
+     * <p>
+     * 原文：
+     * Compiles a path using the given separator.
+     * <p>
+     * No key in the path may be empty, so for example {@code "a..b"} and
+     * {@code "a."} are not valid paths. Use {@link #ofKeys(String...)} for
+     * empty keys.
+     *
+     * @param path 路径, 不能为空
+     * @param separator 路径分隔符
+     * @return 编译后的路径
+     */
+    @NotNull
+    public static ConfigPath of(@NotNull String path, char separator) {
+        Preconditions.checkArgument(path != null && !path.isEmpty(), "Path cannot be null or empty");
+
+        List<String> keys = new ArrayList<String>();
+        int start = 0;
+        int index;
+        while ((index = path.indexOf(separator, start)) != -1) {
+            Preconditions.checkArgument(index > start, "Path cannot contain empty keys: %s", path);
+            keys.add(path.substring(start, index));
+            start = index + 1;
+        }
+        Preconditions.checkArgument(start < path.length(), "Path cannot contain empty keys: %s", path);
+        keys.add(path.substring(start));
+        return new ConfigPath(keys.toArray(new String[keys.size()]));
+    }
+
+    /**
+     * 由各层的键创建一个路径. 键中可以包含任何字符, 包括路径分隔符.
+     * <p>
+     * 原文：
+     * Creates a path from the keys of each level. Keys may contain any
+     * character, including path separators.
+     *
+     * @param keys 各层的键, 至少需要一个
+     * @return 路径
+     */
+    @NotNull
+    public static ConfigPath ofKeys(@NotNull String... keys) {
+        Preconditions.checkArgument(keys != null && keys.length > 0, "Keys cannot be null or empty");
+        for (String key : keys) {
+            Preconditions.checkArgument(key != null, "Keys cannot contain null");
+        }
+        return new ConfigPath(keys.clone());
+    }
+
+    /**
+     * 获取路径的层数.
+     * <p>
+     * 原文：
+     * Gets the number of levels of this path.
+     *
+     * @return 层数, 至少为 1
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * 获取指定层的键.
+     * <p>
+     * 原文：
+     * Gets the key of the given level.
+     *
+     * @param index 层的下标, 范围为 [0, {@link #size()})
+     * @return 该层的键
+     */
+    @NotNull
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * 以给定的分隔符将路径转换为字符串.
+     * <p>
+     * 原文：
+     * Converts this path to a string using the given separator.
+     *
+     * @param separator 路径分隔符
+     * @return 字符串路径
+     */
+    @NotNull
+    public String toString(char separator) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(keys[i]);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toString(DEFAULT_SEPARATOR);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ConfigPath)) {
+            return false;
+        }
+        ConfigPath other = (ConfigPath) obj;
+        return hash == other.hash && Arrays.equals(keys, other.keys);
+    }
+}
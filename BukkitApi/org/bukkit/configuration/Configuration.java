@@ -109,4 +109,23 @@ public interface Configuration extends ConfigurationSection {
      */
     @NotNull
     public ConfigurationOptions options();
+
+    /**
+     * 创建此 {@link Configuration} 当前内容的不可变快照.
+     * <p>
+     * 快照可以在任意线程中安全地读取, 之后对此配置的修改不会影响已创建的快照.
+     * <p>
+     * 原文：
+     * Creates an immutable snapshot of the current contents of this
+     * {@link Configuration}.
+     * <p>
+     * The snapshot is safe to read from any thread, later changes to this
+     * configuration do not affect snapshots already taken.
+     *
+     * @return 此配置的快照
+     */
+    @NotNull
+    public default ConfigurationSnapshot snapshot() {
+        return ConfigurationSnapshot.of(this);
+    }
 }
@@ -1397,4 +1397,249 @@ public interface ConfigurationSection {
      * @param comments 要在该路径设置的新注释, 每个条目代表一行.
      */
     public void setInlineComments(@NotNull String path, @Nullable List<String> comments);
+
+    // Compiled paths
+
+    /**
+     * 通过预先编译的路径获取一个 Object 类型的值.
+     * <p>
+     * 与 {@link #get(String)} 相同, 但路径无需在每次调用时重新拆分.
+     * 默认实现会以根配置的路径分隔符将路径转换为字符串, 实现类可以覆盖此方法以避免转换.
+     * <p>
+     * 原文：
+     * Gets the requested Object by a compiled path.
+     * <p>
+     * Same as {@link #get(String)}, but the path does not need to be split
+     * again on every call. The default implementation converts the path to a
+     * string using the path separator of the root configuration,
+     * implementations may override this method to avoid the conversion.
+     *
+     * @param path 获取 Object 的路径.
+     * @return 返回一个 Object.
+     */
+    @Nullable
+    public default Object get(@NotNull ConfigPath path) {
+        return get(toStringPath(path));
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 Object 类型的值, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the requested Object by a compiled path, returning a default
+     * value if not found.
+     *
+     * @param path 获取 Object 的路径.
+     * @param def 不存在时返回的缺省值.
+     * @return 返回一个 Object.
+     * @see #get(String, Object)
+     */
+    @Contract("_, !null -> !null")
+    @Nullable
+    public default Object get(@NotNull ConfigPath path, @Nullable Object def) {
+        return get(toStringPath(path), def);
+    }
+
+    /**
+     * 在预先编译的路径上设置指定的值, 值为 null 时移除该路径.
+     * <p>
+     * 原文：
+     * Sets the specified compiled path to the given value, removing it if
+     * the value is null.
+     *
+     * @param path 要设置的路径.
+     * @param value 新的值.
+     * @see #set(String, Object)
+     */
+    public default void set(@NotNull ConfigPath path, @Nullable Object value) {
+        set(toStringPath(path), value);
+    }
+
+    /**
+     * 检测预先编译的路径上是否存在值.
+     * <p>
+     * 原文：
+     * Checks if this section contains the given compiled path.
+     *
+     * @param path 要检测的路径.
+     * @return 如果存在值(或缺省值)则返回 true.
+     * @see #contains(String)
+     */
+    public default boolean contains(@NotNull ConfigPath path) {
+        return get(path) != null;
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 String 类型的值.
+     * <p>
+     * 原文：
+     * Gets the requested String by a compiled path.
+     *
+     * @param path 获取 String 的路径.
+     * @return 返回一个 String.
+     * @see #getString(String)
+     */
+    @Nullable
+    public default String getString(@NotNull ConfigPath path) {
+        return getString(toStringPath(path));
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 String 类型的值, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the requested String by a compiled path, returning a default value
+     * if not found.
+     *
+     * @param path 获取 String 的路径.
+     * @param def 不存在或不是 String 时返回的缺省值.
+     * @return 返回一个 String.
+     * @see #getString(String, String)
+     */
+    @Contract("_, !null -> !null")
+    @Nullable
+    public default String getString(@NotNull ConfigPath path, @Nullable String def) {
+        return getString(toStringPath(path), def);
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 int 类型的值.
+     * <p>
+     * 原文：
+     * Gets the requested int by a compiled path.
+     *
+     * @param path 获取 int 的路径.
+     * @return 返回一个 int.
+     * @see #getInt(String)
+     */
+    public default int getInt(@NotNull ConfigPath path) {
+        return getInt(toStringPath(path));
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 int 类型的值, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the requested int by a compiled path, returning a default value if
+     * not found.
+     *
+     * @param path 获取 int 的路径.
+     * @param def 不存在或不是数字时返回的缺省值.
+     * @return 返回一个 int.
+     * @see #getInt(String, int)
+     */
+    public default int getInt(@NotNull ConfigPath path, int def) {
+        return getInt(toStringPath(path), def);
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 boolean 类型的值.
+     * <p>
+     * 原文：
+     * Gets the requested boolean by a compiled path.
+     *
+     * @param path 获取 boolean 的路径.
+     * @return 返回一个 boolean.
+     * @see #getBoolean(String)
+     */
+    public default boolean getBoolean(@NotNull ConfigPath path) {
+        return getBoolean(toStringPath(path));
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 boolean 类型的值, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the requested boolean by a compiled path, returning a default value
+     * if not found.
+     *
+     * @param path 获取 boolean 的路径.
+     * @param def 不存在或不是 boolean 时返回的缺省值.
+     * @return 返回一个 boolean.
+     * @see #getBoolean(String, boolean)
+     */
+    public default boolean getBoolean(@NotNull ConfigPath path, boolean def) {
+        return getBoolean(toStringPath(path), def);
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 double 类型的值.
+     * <p>
+     * 原文：
+     * Gets the requested double by a compiled path.
+     *
+     * @param path 获取 double 的路径.
+     * @return 返回一个 double.
+     * @see #getDouble(String)
+     */
+    public default double getDouble(@NotNull ConfigPath path) {
+        return getDouble(toStringPath(path));
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 double 类型的值, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the requested double by a compiled path, returning a default value
+     * if not found.
+     *
+     * @param path 获取 double 的路径.
+     * @param def 不存在或不是数字时返回的缺省值.
+     * @return 返回一个 double.
+     * @see #getDouble(String, double)
+     */
+    public default double getDouble(@NotNull ConfigPath path, double def) {
+        return getDouble(toStringPath(path), def);
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 long 类型的值.
+     * <p>
+     * 原文：
+     * Gets the requested long by a compiled path.
+     *
+     * @param path 获取 long 的路径.
+     * @return 返回一个 long.
+     * @see #getLong(String)
+     */
+    public default long getLong(@NotNull ConfigPath path) {
+        return getLong(toStringPath(path));
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 long 类型的值, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the requested long by a compiled path, returning a default value if
+     * not found.
+     *
+     * @param path 获取 long 的路径.
+     * @param def 不存在或不是数字时返回的缺省值.
+     * @return 返回一个 long.
+     * @see #getLong(String, long)
+     */
+    public default long getLong(@NotNull ConfigPath path, long def) {
+        return getLong(toStringPath(path), def);
+    }
+
+    /**
+     * 通过预先编译的路径获取一个 {@link ConfigurationSection}.
+     * <p>
+     * 原文：
+     * Gets the requested ConfigurationSection by a compiled path.
+     *
+     * @param path 获取 {@link ConfigurationSection} 的路径.
+     * @return 返回一个 {@link ConfigurationSection}.
+     * @see #getConfigurationSection(String)
+     */
+    @Nullable
+    public default ConfigurationSection getConfigurationSection(@NotNull ConfigPath path) {
+        return getConfigurationSection(toStringPath(path));
+    }
+
+    @NotNull
+    private String toStringPath(@NotNull ConfigPath path) {
+        Configuration root = getRoot();
+        return path.toString((root == null) ? ConfigPath.DEFAULT_SEPARATOR : root.options().pathSeparator());
+    }
 }
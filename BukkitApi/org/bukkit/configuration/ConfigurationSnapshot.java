@@ -0,0 +1,347 @@
+package org.bukkit.configuration;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link Configuration} 在某一时刻的不可变快照.
+ * <p>
+ * 快照由 {@link Configuration#snapshot()} 创建, 其中所有的值按完整路径展开保存,
+ * 配置的缺省值也会被合并进来(配置自身的值优先). 数字与布尔值额外以基本类型保存,
+ * 因此 {@link #getInt(String)}, {@link #getDouble(String)} 等方法只需一次查表, 不会发生装箱.
+ * 列表与映射会被深度复制为不可修改的集合, 但 {@link org.bukkit.configuration.serialization.ConfigurationSerializable}
+ * 等其他对象不会被复制, 读取者不应修改它们.
+ * <p>
+ * 快照创建后不再改变, 可以在任意线程中安全地读取. 重新加载配置时, 只需创建新的快照并替换掉旧的引用:
+ * <pre>
+ * private volatile ConfigurationSnapshot settings;
+ *
+ * public void reload() {
+ *     reloadConfig();
+ *     settings = getConfig().snapshot();
+ * }
+ * </pre>
+ * 快照只包含值, 不包含配置节本身, 因此对配置节路径调用 {@link #contains(String)} 会返回 false.
+ */
+public final class ConfigurationSnapshot {
+    private static final byte OBJECT = 0;
+    private static final byte NUMBER = 1;
+    private static final byte BOOLEAN = 2;
+
+    private final ImmutableMap<String, Integer> indexes;
+    private final Object[] values;
+    private final byte[] types;
+    private final int[] ints;
+    private final long[] longs;
+    private final double[] doubles;
+
+    private ConfigurationSnapshot(@NotNull Map<String, Object> flattened) {
+        ImmutableMap.Builder<String, Integer> indexes = ImmutableMap.builder();
+        int size = flattened.size();
+        this.values = new Object[size];
+        this.types = new byte[size];
+        this.ints = new int[size];
+        this.longs = new long[size];
+        this.doubles = new double[size];
+
+        int i = 0;
+        for (Map.Entry<String, Object> entry : flattened.entrySet()) {
+            Object value = entry.getValue();
+            indexes.put(entry.getKey(), i);
+            values[i] = value;
+            if (value instanceof Number) {
+                Number number = (Number) value;
+                types[i] = NUMBER;
+                ints[i] = number.intValue();
+                longs[i] = number.longValue();
+                doubles[i] = number.doubleValue();
+            } else if (value instanceof Boolean) {
+                types[i] = BOOLEAN;
+                longs[i] = ((Boolean) value) ? 1 : 0;
+            }
+            i++;
+        }
+        this.indexes = indexes.buildOrThrow();
+    }
+
+    /**
+     * 创建给定配置的快照.
+     * <p>
+     * 原文：
+     * Creates a snapshot of the given configuration.
+     *
+     * @param configuration 配置
+     * @return 快照
+     * @see Configuration#snapshot()
+     */
+    @NotNull
+    public static ConfigurationSnapshot of(@NotNull Configuration configuration) {
+        Preconditions.checkArgument(configuration != null, "Configuration cannot be null");
+
+        Map<String, Object> flattened = new LinkedHashMap<String, Object>();
+        Configuration defaults = configuration.getDefaults();
+        if (defaults != null) {
+            flatten(defaults, flattened);
+        }
+        flatten(configuration, flattened);
+        return new ConfigurationSnapshot(flattened);
+    }
+
+    /**
+     * 获取快照中所有值的完整路径.
+     * <p>
+     * 原文：
+     * Gets the full paths of all values in this snapshot.
+     *
+     * @return 不可修改的路径集合
+     */
+    @NotNull
+    public Set<String> getKeys() {
+        return indexes.keySet();
+    }
+
+    /**
+     * 检测快照中是否包含指定路径的值.
+     * <p>
+     * 原文：
+     * Checks if this snapshot contains a value at the given path.
+     *
+     * @param path 值的完整路径
+     * @return 如果包含则返回 true
+     */
+    public boolean contains(@NotNull String path) {
+        return indexes.containsKey(path);
+    }
+
+    /**
+     * 获取指定路径的值.
+     * <p>
+     * 原文：
+     * Gets the value at the given path.
+     *
+     * @param path 值的完整路径
+     * @return 值, 不存在时为 null
+     */
+    @Nullable
+    public Object get(@NotNull String path) {
+        return get(path, null);
+    }
+
+    /**
+     * 获取指定路径的值, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the value at the given path, returning a default value if not
+     * found.
+     *
+     * @param path 值的完整路径
+     * @param def 缺省值
+     * @return 值
+     */
+    @Contract("_, !null -> !null")
+    @Nullable
+    public Object get(@NotNull String path, @Nullable Object def) {
+        Integer index = indexes.get(path);
+        return (index != null) ? values[index] : def;
+    }
+
+    /**
+     * 获取指定路径的值的字符串形式.
+     * <p>
+     * 原文：
+     * Gets the value at the given path as a string.
+     *
+     * @param path 值的完整路径
+     * @return 字符串, 不存在时为 null
+     */
+    @Nullable
+    public String getString(@NotNull String path) {
+        return getString(path, null);
+    }
+
+    /**
+     * 获取指定路径的值的字符串形式, 不存在时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the value at the given path as a string, returning a default value
+     * if not found.
+     *
+     * @param path 值的完整路径
+     * @param def 缺省值
+     * @return 字符串
+     */
+    @Contract("_, !null -> !null")
+    @Nullable
+    public String getString(@NotNull String path, @Nullable String def) {
+        Object value = get(path, null);
+        return (value != null) ? value.toString() : def;
+    }
+
+    /**
+     * 获取指定路径的 int 值.
+     * <p>
+     * 原文：
+     * Gets the int at the given path.
+     *
+     * @param path 值的完整路径
+     * @return int 值, 不存在或不是数字时为 0
+     */
+    public int getInt(@NotNull String path) {
+        return getInt(path, 0);
+    }
+
+    /**
+     * 获取指定路径的 int 值, 不存在或不是数字时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the int at the given path, returning a default value if not found
+     * or not a number.
+     *
+     * @param path 值的完整路径
+     * @param def 缺省值
+     * @return int 值
+     */
+    public int getInt(@NotNull String path, int def) {
+        Integer index = indexes.get(path);
+        return (index != null && types[index] == NUMBER) ? ints[index] : def;
+    }
+
+    /**
+     * 获取指定路径的 long 值.
+     * <p>
+     * 原文：
+     * Gets the long at the given path.
+     *
+     * @param path 值的完整路径
+     * @return long 值, 不存在或不是数字时为 0
+     */
+    public long getLong(@NotNull String path) {
+        return getLong(path, 0);
+    }
+
+    /**
+     * 获取指定路径的 long 值, 不存在或不是数字时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the long at the given path, returning a default value if not found
+     * or not a number.
+     *
+     * @param path 值的完整路径
+     * @param def 缺省值
+     * @return long 值
+     */
+    public long getLong(@NotNull String path, long def) {
+        Integer index = indexes.get(path);
+        return (index != null && types[index] == NUMBER) ? longs[index] : def;
+    }
+
+    /**
+     * 获取指定路径的 double 值.
+     * <p>
+     * 原文：
+     * Gets the double at the given path.
+     *
+     * @param path 值的完整路径
+     * @return double 值, 不存在或不是数字时为 0
+     */
+    public double getDouble(@NotNull String path) {
+        return getDouble(path, 0);
+    }
+
+    /**
+     * 获取指定路径的 double 值, 不存在或不是数字时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the double at the given path, returning a default value if not
+     * found or not a number.
+     *
+     * @param path 值的完整路径
+     * @param def 缺省值
+     * @return double 值
+     */
+    public double getDouble(@NotNull String path, double def) {
+        Integer index = indexes.get(path);
+        return (index != null && types[index] == NUMBER) ? doubles[index] : def;
+    }
+
+    /**
+     * 获取指定路径的 boolean 值.
+     * <p>
+     * 原文：
+     * Gets the boolean at the given path.
+     *
+     * @param path 值的完整路径
+     * @return boolean 值, 不存在或不是布尔值时为 false
+     */
+    public boolean getBoolean(@NotNull String path) {
+        return getBoolean(path, false);
+    }
+
+    /**
+     * 获取指定路径的 boolean 值, 不存在或不是布尔值时返回给定的缺省值.
+     * <p>
+     * 原文：
+     * Gets the boolean at the given path, returning a default value if not
+     * found or not a boolean.
+     *
+     * @param path 值的完整路径
+     * @param def 缺省值
+     * @return boolean 值
+     */
+    public boolean getBoolean(@NotNull String path, boolean def) {
+        Integer index = indexes.get(path);
+        return (index != null && types[index] == BOOLEAN) ? longs[index] != 0 : def;
+    }
+
+    /**
+     * 获取指定路径的列表.
+     * <p>
+     * 原文：
+     * Gets the list at the given path.
+     *
+     * @param path 值的完整路径
+     * @return 不可修改的列表, 不存在或不是列表时为 null
+     */
+    @Nullable
+    public List<?> getList(@NotNull String path) {
+        Object value = get(path, null);
+        return (value instanceof List) ? (List<?>) value : null;
+    }
+
+    private static void flatten(@NotNull ConfigurationSection section, @NotNull Map<String, Object> result) {
+        for (Map.Entry<String, Object> entry : section.getValues(true).entrySet()) {
+            if (!(entry.getValue() instanceof ConfigurationSection)) {
+                result.put(entry.getKey(), freeze(entry.getValue()));
+            }
+        }
+    }
+
+    @Nullable
+    private static Object freeze(@Nullable Object value) {
+        if (value instanceof ConfigurationSection) {
+            return freeze(((ConfigurationSection) value).getValues(false));
+        } else if (value instanceof List) {
+            List<Object> copy = new ArrayList<Object>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                copy.add(freeze(element));
+            }
+            return Collections.unmodifiableList(copy);
+        } else if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<Object, Object>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), freeze(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+        return value;
+    }
+}
@@ -24,6 +24,8 @@ import org.jetbrains.annotations.Nullable;
  * 一种存储在内存中的 {@link ConfigurationSection}.
  */
 public class MemorySection implements ConfigurationSection {
+    private static final Object MISSING = new Object();
+
     protected final Map<String, SectionPathData> map = new LinkedHashMap<String, SectionPathData>();
     private final Configuration root;
     private final ConfigurationSection parent;
@@ -221,6 +223,7 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             if (value == null) {
                 map.remove(key);
             } else {
@@ -239,7 +242,9 @@ public class MemorySection implements ConfigurationSection {
     @Override
     @Nullable
     public Object get(@NotNull String path) {
-        return get(path, getDefault(path));
+        // Only look for a default once the path turned out to be missing
+        Object val = get(path, MISSING);
+        return (val != MISSING) ? val : getDefault(path);
     }
 
     @Override
@@ -275,6 +280,7 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             SectionPathData result = map.get(key);
             return (result == null) ? def : result.getData();
         }
@@ -307,6 +313,7 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             ConfigurationSection result = new MemorySection(this, key);
             map.put(key, new SectionPathData(result));
             return result;
@@ -852,6 +859,237 @@ public class MemorySection implements ConfigurationSection {
         return val instanceof ConfigurationSection;
     }
 
+    // Compiled paths
+    @Override
+    @Nullable
+    public Object get(@NotNull ConfigPath path) {
+        Object val = get(path, MISSING);
+        return (val != MISSING) ? val : getDefault(path);
+    }
+
+    @Override
+    @Contract("_, !null -> !null")
+    @Nullable
+    public Object get(@NotNull ConfigPath path, @Nullable Object def) {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        ConfigurationSection section = this;
+        int last = path.size() - 1;
+        for (int i = 0; i < last; i++) {
+            String key = path.getKey(i);
+            if (isPlainSection(section)) {
+                ((MemorySection) section).materialize();
+                SectionPathData entry = ((MemorySection) section).map.get(key);
+                Object data = (entry == null) ? null : entry.getData();
+                if (!(data instanceof ConfigurationSection)) {
+                    return def;
+                }
+                section = (ConfigurationSection) data;
+            } else {
+                if (!section.contains(key, true)) {
+                    return def;
+                }
+                section = section.getConfigurationSection(key);
+                if (section == null) {
+                    return def;
+                }
+            }
+        }
+
+        String key = path.getKey(last);
+        if (isPlainSection(section)) {
+            ((MemorySection) section).materialize();
+            SectionPathData result = ((MemorySection) section).map.get(key);
+            return (result == null) ? def : result.getData();
+        }
+        return section.get(key, def);
+    }
+
+    @Override
+    public void set(@NotNull ConfigPath path, @Nullable Object value) {
+        Preconditions.checkArgument(path != null, "Cannot set to an empty path");
+
+        ConfigurationSection section = this;
+        int last = path.size() - 1;
+        for (int i = 0; i < last; i++) {
+            String key = path.getKey(i);
+            ConfigurationSection subSection;
+            if (isPlainSection(section)) {
+                ((MemorySection) section).materialize();
+                SectionPathData entry = ((MemorySection) section).map.get(key);
+                Object data = (entry == null) ? null : entry.getData();
+                subSection = (data instanceof ConfigurationSection) ? (ConfigurationSection) data : null;
+            } else {
+                subSection = section.getConfigurationSection(key);
+            }
+
+            if (subSection == null) {
+                if (value == null) {
+                    // no need to create missing sub-sections if we want to remove the value:
+                    return;
+                }
+                section = section.createSection(key);
+            } else {
+                section = subSection;
+            }
+        }
+
+        String key = path.getKey(last);
+        if (isPlainSection(section)) {
+            ((MemorySection) section).materialize();
+            Map<String, SectionPathData> map = ((MemorySection) section).map;
+            if (value == null) {
+                map.remove(key);
+            } else {
+                SectionPathData entry = map.get(key);
+                if (entry == null) {
+                    map.put(key, new SectionPathData(value));
+                } else {
+                    entry.setData(value);
+                }
+            }
+        } else {
+            section.set(key, value);
+        }
+    }
+
+    @Override
+    @Nullable
+    public String getString(@NotNull ConfigPath path) {
+        Object val = get(path, MISSING);
+        if (val == MISSING) {
+            val = getDefault(path);
+        }
+        return (val != null) ? val.toString() : null;
+    }
+
+    @Override
+    @Contract("_, !null -> !null")
+    @Nullable
+    public String getString(@NotNull ConfigPath path, @Nullable String def) {
+        Object val = get(path, def);
+        return (val != null) ? val.toString() : def;
+    }
+
+    @Override
+    public int getInt(@NotNull ConfigPath path) {
+        Object val = get(path, MISSING);
+        if (val instanceof Number) {
+            return toInt(val);
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toInt(def) : 0;
+    }
+
+    @Override
+    public int getInt(@NotNull ConfigPath path, int def) {
+        Object val = get(path, MISSING);
+        return (val instanceof Number) ? toInt(val) : def;
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath path) {
+        Object val = get(path, MISSING);
+        if (val instanceof Boolean) {
+            return (Boolean) val;
+        }
+        Object def = getDefault(path);
+        return (def instanceof Boolean) ? (Boolean) def : false;
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull ConfigPath path, boolean def) {
+        Object val = get(path, MISSING);
+        return (val instanceof Boolean) ? (Boolean) val : def;
+    }
+
+    @Override
+    public double getDouble(@NotNull ConfigPath path) {
+        Object val = get(path, MISSING);
+        if (val instanceof Number) {
+            return toDouble(val);
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toDouble(def) : 0;
+    }
+
+    @Override
+    public double getDouble(@NotNull ConfigPath path, double def) {
+        Object val = get(path, MISSING);
+        return (val instanceof Number) ? toDouble(val) : def;
+    }
+
+    @Override
+    public long getLong(@NotNull ConfigPath path) {
+        Object val = get(path, MISSING);
+        if (val instanceof Number) {
+            return toLong(val);
+        }
+        Object def = getDefault(path);
+        return (def instanceof Number) ? toLong(def) : 0;
+    }
+
+    @Override
+    public long getLong(@NotNull ConfigPath path, long def) {
+        Object val = get(path, MISSING);
+        return (val instanceof Number) ? toLong(val) : def;
+    }
+
+    @Override
+    @Nullable
+    public ConfigurationSection getConfigurationSection(@NotNull ConfigPath path) {
+        Object val = get(path, null);
+        if (val != null) {
+            return (val instanceof ConfigurationSection) ? (ConfigurationSection) val : null;
+        }
+
+        if (!(getDefault(path) instanceof ConfigurationSection)) {
+            return null;
+        }
+
+        ConfigurationSection section = this;
+        int last = path.size() - 1;
+        for (int i = 0; i < last; i++) {
+            ConfigurationSection subSection = section.getConfigurationSection(path.getKey(i));
+            section = (subSection != null) ? subSection : section.createSection(path.getKey(i));
+        }
+        return section.createSection(path.getKey(last));
+    }
+
+    private boolean isPlainSection(@NotNull ConfigurationSection section) {
+        // Sections created by createSection can be walked directly, anything else may override lookups
+        return section == this || section.getClass() == MemorySection.class;
+    }
+
+    @Nullable
+    private Object getDefault(@NotNull ConfigPath path) {
+        Configuration root = getRoot();
+        Configuration defaults = root == null ? null : root.getDefaults();
+        if (defaults == null) {
+            return null;
+        }
+
+        ConfigurationSection section = (root == this) ? defaults : getDefaultSection();
+        return (section == null) ? null : section.get(path);
+    }
+
+    /**
+     * 在读取或修改此节的 {@link #map} 之前调用.
+     * <p>
+     * 默认实现不做任何事. 延迟载入内容的子类可以覆盖此方法, 在第一次被调用时才填充 {@link #map}.
+     * 覆盖的实现必须能被重复调用, 并且在填充期间再次被调用时直接返回.
+     * <p>
+     * 原文：
+     * Called before the {@link #map} of this section is read or modified.
+     * <p>
+     * The default implementation does nothing. Subclasses that load their
+     * contents lazily may override this to fill the {@link #map} on the first
+     * call. Overrides must tolerate repeated calls, and must return at once
+     * when called again while filling.
+     */
+    protected void materialize() {
+    }
+
     protected boolean isPrimitiveWrapper(@Nullable Object input) {
         return input instanceof Integer || input instanceof Boolean
                 || input instanceof Character || input instanceof Byte
@@ -871,6 +1109,7 @@ public class MemorySection implements ConfigurationSection {
     protected void mapChildrenKeys(@NotNull Set<String> output, @NotNull ConfigurationSection section, boolean deep) {
         if (section instanceof MemorySection) {
             MemorySection sec = (MemorySection) section;
+            sec.materialize();
 
             for (Map.Entry<String, SectionPathData> entry : sec.map.entrySet()) {
                 output.add(createPath(section, entry.getKey(), this));
@@ -892,6 +1131,7 @@ public class MemorySection implements ConfigurationSection {
     protected void mapChildrenValues(@NotNull Map<String, Object> output, @NotNull ConfigurationSection section, boolean deep) {
         if (section instanceof MemorySection) {
             MemorySection sec = (MemorySection) section;
+            sec.materialize();
 
             for (Map.Entry<String, SectionPathData> entry : sec.map.entrySet()) {
                 // Because of the copyDefaults call potentially copying out of order, we must remove and then add in our saved order
@@ -1035,6 +1275,7 @@ public class MemorySection implements ConfigurationSection {
 
         String key = path.substring(i2);
         if (section == this) {
+            materialize();
             SectionPathData entry = map.get(key);
             if (entry != null) {
                 return entry;
@@ -9,10 +9,15 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.MemoryConfiguration;
@@ -87,6 +92,98 @@ public abstract class FileConfiguration extends MemoryConfiguration {
         save(new File(file));
     }
 
+    /**
+     * 在后台线程中将此 {@link FileConfiguration} 保存到指定文件.
+     * <p>
+     * 等同于 {@link #saveAsync(File, long, TimeUnit) saveAsync(file, 0, TimeUnit.MILLISECONDS)}.
+     * <p>
+     * 原文：Saves this FileConfiguration to the specified file on a background
+     * thread. This is equivalent to
+     * {@code saveAsync(file, 0, TimeUnit.MILLISECONDS)}.
+     *
+     * @param file 要储存的文件
+     * @return 文件写入完成时完成的 Future, 写入失败时以对应的异常完成
+     * @throws IllegalArgumentException 如果文件为null
+     */
+    @NotNull
+    public CompletableFuture<Void> saveAsync(@NotNull File file) {
+        return saveAsync(file, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在给定的延迟后, 于后台线程中将此 {@link FileConfiguration} 保存到指定文件.
+     * <p>
+     * 此方法在调用线程上通过 {@link #prepareSave()} 记录配置当前的内容, 之后对配置的修改不会影响这次保存;
+     * 耗时的转换与写入都在后台线程中进行. 内容以 UTF-8 编码先写入同一目录下的临时文件, 再被移动到目标位置,
+     * 因此目标文件要么保持原样, 要么是完整的新内容.
+     * <p>
+     * 在延迟结束前再次保存同一文件(无论来自哪个配置)时, 两次请求会被合并: 只写入最后一次请求的内容,
+     * 返回的 Future 也会同时完成. 因此可以在每次修改后调用此方法, 而由延迟决定实际写入的频率.
+     * <p>
+     * 后台线程是守护线程, 不会阻止服务器关闭. 在插件禁用等必须确保写入完成的场合, 应等待返回的 Future,
+     * 例如调用 {@link CompletableFuture#join()}. 此方法与 {@link #save(File)} 之间没有同步.
+     * <p>
+     * 原文：Saves this FileConfiguration to the specified file on a background
+     * thread, after the given delay.
+     * <p>
+     * The current contents of this configuration are captured on the calling
+     * thread through {@link #prepareSave()}, so later changes do not affect this
+     * save. The expensive conversion and the write happen on the background
+     * thread. The contents are encoded as UTF-8 and written to a temporary file
+     * in the same directory first, which is then moved into place, so the
+     * target file is either left as it was or holds the complete new contents.
+     * <p>
+     * Saving the same file again, from any configuration, before the delay has
+     * passed coalesces both requests: only the contents of the last one are
+     * written, and the returned futures complete together. This method may thus
+     * be called after every change, letting the delay decide how often the file
+     * is actually written.
+     * <p>
+     * The background thread is a daemon thread and does not keep the server
+     * from shutting down. Where the write must have finished, such as when a
+     * plugin is disabled, wait for the returned future, for example by calling
+     * {@link CompletableFuture#join()}. This method is not synchronized with
+     * {@link #save(File)}.
+     *
+     * @param file 要储存的文件
+     * @param delay 写入前等待的时间, 在此期间对同一文件的保存会被合并
+     * @param unit 延迟的单位
+     * @return 文件写入完成时完成的 Future, 写入失败时以对应的异常完成
+     * @throws IllegalArgumentException 如果文件或单位为null, 或者延迟为负数
+     */
+    @NotNull
+    public CompletableFuture<Void> saveAsync(@NotNull File file, long delay, @NotNull TimeUnit unit) {
+        Preconditions.checkArgument(file != null, "File cannot be null");
+        Preconditions.checkArgument(delay >= 0, "Delay cannot be negative");
+        Preconditions.checkArgument(unit != null, "Unit cannot be null");
+
+        return FileSaveQueue.submit(file, prepareSave(), delay, unit);
+    }
+
+    /**
+     * 为 {@link #saveAsync(File, long, TimeUnit)} 记录此配置当前的内容.
+     * <p>
+     * 此方法在调用线程上执行, 返回的任务则在后台线程中执行, 并生成要写入文件的字符串.
+     * 任务不能再访问此配置. 默认实现直接在调用线程上调用 {@link #saveToString()};
+     * 子类可以覆盖此方法, 只在此处复制配置, 而把转换留给后台线程.
+     * <p>
+     * 原文：Captures the current contents of this configuration for
+     * {@link #saveAsync(File, long, TimeUnit)}. This method runs on the calling
+     * thread, while the returned task runs on the background thread and
+     * produces the string to write. The task must not access this configuration
+     * any more. The default implementation simply calls
+     * {@link #saveToString()} on the calling thread. Subclasses may override
+     * this to only copy the configuration here, leaving the conversion to the
+     * background thread.
+     *
+     * @return 生成文件内容的任务
+     */
+    @NotNull
+    protected Callable<String> prepareSave() {
+        String data = saveToString();
+        return () -> data;
+    }
+
     /**
      * 将这个 {@link FileConfiguration} 转化为String对象并且返回
      *
@@ -154,6 +251,52 @@ public abstract class FileConfiguration extends MemoryConfiguration {
         loadFromString(builder.toString());
     }
 
+    /**
+     * 从指定的输入流加载此 {@link FileConfiguration}, 输入流以 UTF-8 解码, 并在加载完成后被关闭.
+     * <p>
+     * 此配置中包含的所有值都将被移除,只保留设置和默认值,新的值将从给定的流中加载.
+     * 子类可以覆盖此方法, 边读取边转换, 而不必先把整个输入读成字符串.
+     * <p>
+     * 原文：Loads this FileConfiguration from the specified stream, decoded as
+     * UTF-8. The stream is closed once loaded. All the values contained within
+     * this configuration will be removed, leaving only settings and defaults,
+     * and the new values will be loaded from the given stream. Subclasses may
+     * override this to convert the input while reading it, rather than reading
+     * it into a string first.
+     *
+     * @param stream 要从中加载的输入流
+     * @throws IOException 当底层输入流抛出IOException时抛出
+     * @throws InvalidConfigurationException 当输入流不表示有效的配置时抛出
+     * @throws IllegalArgumentException 当stream为null时抛出
+     */
+    public void load(@NotNull InputStream stream) throws IOException, InvalidConfigurationException {
+        Preconditions.checkArgument(stream != null, "Stream cannot be null");
+
+        load(new InputStreamReader(stream, Charsets.UTF_8));
+    }
+
+    /**
+     * 从指定路径的文件加载此 {@link FileConfiguration}.
+     * <p>
+     * 此配置中包含的所有值都将被移除,只保留设置和默认值,新的值将从给定的文件中加载.
+     * 文件通过 {@link #load(InputStream)} 读取.
+     * <p>
+     * 原文：Loads this FileConfiguration from the file at the specified path. All
+     * the values contained within this configuration will be removed, leaving
+     * only settings and defaults, and the new values will be loaded from the
+     * given file. The file is read through {@link #load(InputStream)}.
+     *
+     * @param path 要加载的文件的路径
+     * @throws IOException 当给定的文件无法被打开或读取时抛出
+     * @throws InvalidConfigurationException 当给定的文件不是有效的配置时抛出
+     * @throws IllegalArgumentException 当路径为null时抛出
+     */
+    public void load(@NotNull Path path) throws IOException, InvalidConfigurationException {
+        Preconditions.checkArgument(path != null, "Path cannot be null");
+
+        load(java.nio.file.Files.newInputStream(path));
+    }
+
     /**
      * 从指定位置加载 {@link FileConfiguration}.
      * <p>
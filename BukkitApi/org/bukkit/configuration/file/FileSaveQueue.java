@@ -0,0 +1,136 @@
+package org.bukkit.configuration.file;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 在后台线程中依次写入配置文件.
+ * <p>
+ * 同一文件的保存请求在等待期间会被合并: 只有最后一次请求的内容会被写入, 所有请求共享同一个结果,
+ * 并且在其中最早的期限到达时写入.
+ * 内容先被完整地写入同一目录下的临时文件, 再被移动到目标位置,
+ * 因此目标文件要么保持原样, 要么是完整的新内容.
+ */
+final class FileSaveQueue {
+    private static final ScheduledThreadPoolExecutor EXECUTOR = createExecutor();
+    private static final Map<Path, PendingSave> PENDING = new HashMap<Path, PendingSave>();
+
+    private FileSaveQueue() {
+    }
+
+    @NotNull
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("Configuration Save Thread")
+                .setDaemon(true)
+                .build());
+        // Saves moved to an earlier deadline should not linger in the queue
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * 在给定的延迟后保存文件. 若该文件已有尚未开始的保存, 则改为写入新的内容, 而不另行保存;
+     * 若新请求的期限更早, 该保存会提前到新的期限.
+     *
+     * @param file 要保存的文件
+     * @param contents 在后台线程中生成文件内容的任务
+     * @param delay 延迟
+     * @param unit 延迟的单位
+     * @return 文件写入完成时完成的 Future
+     */
+    @NotNull
+    static CompletableFuture<Void> submit(@NotNull File file, @NotNull Callable<String> contents, long delay, @NotNull TimeUnit unit) {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        // Capped so that deadlines stay comparable by subtraction
+        long deadline = System.nanoTime() + Math.min(unit.toNanos(delay), Long.MAX_VALUE >> 1);
+        synchronized (PENDING) {
+            PendingSave pending = PENDING.get(path);
+            if (pending == null) {
+                pending = new PendingSave(path);
+                PENDING.put(path, pending);
+                pending.schedule(deadline);
+            } else if (deadline - pending.deadline < 0 && pending.task.cancel(false)) {
+                // A save that already started picks up the new contents anyway
+                pending.schedule(deadline);
+            }
+            pending.contents = contents;
+            return pending.future.copy();
+        }
+    }
+
+    private static void write(@NotNull Path path, @NotNull String data) throws IOException {
+        Files.createDirectories(path.getParent());
+
+        // Only the save thread writes through this temporary file, so its name can be fixed
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static final class PendingSave implements Runnable {
+        private final Path path;
+        private final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        private Callable<String> contents; // Guarded by PENDING
+        private ScheduledFuture<?> task; // Guarded by PENDING
+        private long deadline; // Guarded by PENDING
+
+        private PendingSave(@NotNull Path path) {
+            this.path = path;
+        }
+
+        private void schedule(long deadline) {
+            this.deadline = deadline;
+            this.task = EXECUTOR.schedule(this, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void run() {
+            Callable<String> contents;
+            synchronized (PENDING) {
+                // Requests from now on are saved separately, after this one
+                PENDING.remove(path);
+                contents = this.contents;
+            }
+
+            try {
+                write(path, contents.call());
+                future.complete(null);
+            } catch (Throwable ex) {
+                future.completeExceptionally(ex);
+            }
+        }
+    }
+}
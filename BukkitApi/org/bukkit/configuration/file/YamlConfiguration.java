@@ -5,26 +5,37 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.Configuration;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.MemorySection;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.comments.CommentLine;
 import org.yaml.snakeyaml.comments.CommentType;
+import org.yaml.snakeyaml.composer.Composer;
 import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.MappingStartEvent;
 import org.yaml.snakeyaml.nodes.AnchorNode;
 import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
@@ -32,7 +43,10 @@ import org.yaml.snakeyaml.nodes.NodeTuple;
 import org.yaml.snakeyaml.nodes.ScalarNode;
 import org.yaml.snakeyaml.nodes.SequenceNode;
 import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
 import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.resolver.Resolver;
 
 /**
  * {@link Configuration} 的一种实现, 所有文件以 Yaml 格式保存.
@@ -94,6 +108,63 @@ public class YamlConfiguration extends FileConfiguration {
         return writer.toString();
     }
 
+    @NotNull
+    @Override
+    protected Callable<String> prepareSave() {
+        // Only copy the section tree here, representing it is left to the save thread
+        YamlConfiguration copy = new YamlConfiguration();
+        copy.options()
+                .indent(options().indent())
+                .width(options().width())
+                .parseComments(options().parseComments())
+                .pathSeparator('\0') // Keys are copied one level at a time and must not be split
+                .setHeader(options().getHeader())
+                .setFooter(options().getFooter());
+        copySection(this, copy);
+        return copy::saveToString;
+    }
+
+    private static void copySection(@NotNull ConfigurationSection source, @NotNull ConfigurationSection target) {
+        for (Map.Entry<String, Object> entry : source.getValues(false).entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof ConfigurationSection) {
+                copySection((ConfigurationSection) value, target.createSection(key));
+            } else {
+                target.set(key, copyValue(value));
+            }
+            target.setComments(key, new ArrayList<String>(source.getComments(key)));
+            target.setInlineComments(key, new ArrayList<String>(source.getInlineComments(key)));
+        }
+    }
+
+    @Nullable
+    private static Object copyValue(@Nullable Object value) {
+        // Anything mutable is copied, serializable objects are serialized the same way YamlRepresenter does
+        if (value instanceof ConfigurationSection) {
+            return copyValue(((ConfigurationSection) value).getValues(false));
+        } else if (value instanceof ConfigurationSerializable) {
+            ConfigurationSerializable serializable = (ConfigurationSerializable) value;
+            Map<String, Object> values = new LinkedHashMap<String, Object>();
+            values.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, ConfigurationSerialization.getAlias(serializable.getClass()));
+            values.putAll(serializable.serialize());
+            return copyValue(values);
+        } else if (value instanceof List) {
+            List<Object> copy = new ArrayList<Object>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                copy.add(copyValue(element));
+            }
+            return copy;
+        } else if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<Object, Object>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+            return copy;
+        }
+        return value;
+    }
+
     @Override
     public void loadFromString(@NotNull String contents) throws InvalidConfigurationException {
         Preconditions.checkArgument(contents != null, "Contents cannot be null");
@@ -121,6 +192,63 @@ public class YamlConfiguration extends FileConfiguration {
         }
     }
 
+    /**
+     * 从指定的输入流以流的方式加载此配置, 并在加载完成后关闭输入流.
+     * <p>
+     * 与 {@link #loadFromString(String)} 不同, 此方法不会先把输入读成字符串, 也不会先组合出完整的节点树:
+     * 映射中的每个键值对在解析完成后立即被转换到对应的配置节中, 对应的节点随即被丢弃.
+     * 只有序列, 带有锚点的映射等无法逐项转换的值才会被完整地组合后再转换.
+     * 开启 {@link YamlConfigurationOptions#lazySections()} 后, 根节以下的子节保持未转换的状态,
+     * 直到第一次被访问.
+     * <p>
+     * 输入流的编码按 BOM 检测, 没有 BOM 时为 UTF-8. 由于配置是在解析过程中被填充的,
+     * 加载失败时此配置中的值会被全部清除.
+     * <p>
+     * 原文：
+     * Loads this configuration from the given stream as it is being parsed, and
+     * closes the stream once loaded.
+     * <p>
+     * Unlike {@link #loadFromString(String)}, this neither reads the input into
+     * a string nor composes a full node tree first: every entry of a mapping is
+     * converted into its configuration section as soon as it has been parsed,
+     * and its nodes are dropped right away. Only values that cannot be
+     * converted entry by entry, such as sequences or anchored mappings, are
+     * composed in full before being converted. With
+     * {@link YamlConfigurationOptions#lazySections()} enabled, subsections
+     * below the root stay unconverted until they are first accessed.
+     * <p>
+     * The encoding of the stream is detected from its BOM, defaulting to
+     * UTF-8. As this configuration is filled while parsing, all of its values
+     * are cleared if loading fails.
+     *
+     * @param stream 要从中加载的输入流
+     * @throws IOException 当输入流无法被关闭时抛出
+     * @throws InvalidConfigurationException 当输入流不表示有效的配置时抛出
+     * @throws IllegalArgumentException 当stream为null时抛出
+     */
+    @Override
+    public void load(@NotNull InputStream stream) throws IOException, InvalidConfigurationException {
+        Preconditions.checkArgument(stream != null, "Stream cannot be null");
+        yamlLoaderOptions.setProcessComments(options().parseComments());
+
+        this.map.clear();
+
+        Node node;
+        try (Reader reader = new UnicodeReader(stream)) {
+            node = new SectionComposer(reader).compose();
+        } catch (YAMLException e) {
+            this.map.clear();
+            throw new InvalidConfigurationException(e);
+        }
+
+        if (node instanceof MappingNode) {
+            options().setHeader(loadHeader(getCommentLines(node.getBlockComments())));
+            options().setFooter(getCommentLines(node.getEndComments()));
+        } else if (node != null) {
+            throw new InvalidConfigurationException("Top level is not a Map.");
+        }
+    }
+
     /**
      * 此方法在最后一个空行处分割头部, 并将该行以下的注释设置为 map 对象第一个键的注释.
      * <p>
@@ -131,8 +259,13 @@ public class YamlConfiguration extends FileConfiguration {
      * @param node yaml 对象的根节点.
      */
     private void adjustNodeComments(final MappingNode node) {
-        if (node.getBlockComments() == null && !node.getValue().isEmpty()) {
-            Node firstNode = node.getValue().get(0).getKeyNode();
+        if (!node.getValue().isEmpty()) {
+            adjustNodeComments(node, node.getValue().get(0).getKeyNode());
+        }
+    }
+
+    private void adjustNodeComments(final MappingNode node, final Node firstNode) {
+        if (node.getBlockComments() == null) {
             List<CommentLine> lines = firstNode.getBlockComments();
             if (lines != null) {
                 int index = -1;
@@ -150,29 +283,54 @@ public class YamlConfiguration extends FileConfiguration {
     }
 
     private void fromNodeTree(@NotNull MappingNode input, @NotNull ConfigurationSection section) {
-        constructor.flattenMapping(input);
+        flattenMapping(input);
         for (NodeTuple nodeTuple : input.getValue()) {
             Node key = nodeTuple.getKeyNode();
-            String keyString = String.valueOf(constructor.construct(key));
-            Node value = nodeTuple.getValueNode();
+            String keyString = String.valueOf(constructor.constructValue(key));
+            Node value = getRealNode(nodeTuple.getValueNode());
 
-            while (value instanceof AnchorNode) {
-                value = ((AnchorNode) value).getRealNode();
-            }
+            fromNode(value, section, keyString);
+            setComments(key, value, section, keyString);
+        }
+    }
 
-            if (value instanceof MappingNode && !hasSerializedTypeKey((MappingNode) value)) {
-                fromNodeTree((MappingNode) value, section.createSection(keyString));
+    private void fromNode(@NotNull Node value, @NotNull ConfigurationSection section, @NotNull String key) {
+        if (value instanceof MappingNode && !hasSerializedTypeKey((MappingNode) value)) {
+            if (options().lazySections() && key.indexOf(options().pathSeparator()) == -1) {
+                section.set(key, new LazySection(section, key, (MappingNode) value));
             } else {
-                section.set(keyString, constructor.construct(value));
+                fromNodeTree((MappingNode) value, section.createSection(key));
             }
+        } else {
+            section.set(key, constructor.constructValue(value));
+        }
+    }
 
-            section.setComments(keyString, getCommentLines(key.getBlockComments()));
-            if (value instanceof MappingNode || value instanceof SequenceNode) {
-                section.setInlineComments(keyString, getCommentLines(key.getInLineComments()));
-            } else {
-                section.setInlineComments(keyString, getCommentLines(value.getInLineComments()));
-            }
+    private void setComments(@NotNull Node key, @NotNull Node value, @NotNull ConfigurationSection section, @NotNull String keyString) {
+        section.setComments(keyString, getCommentLines(key.getBlockComments()));
+        if (value instanceof MappingNode || value instanceof SequenceNode) {
+            section.setInlineComments(keyString, getCommentLines(key.getInLineComments()));
+        } else {
+            section.setInlineComments(keyString, getCommentLines(value.getInLineComments()));
+        }
+    }
+
+    @NotNull
+    private static Node getRealNode(@NotNull Node value) {
+        while (value instanceof AnchorNode) {
+            value = ((AnchorNode) value).getRealNode();
+        }
+        return value;
+    }
+
+    @NotNull
+    private static Map<String, Object> toMap(@NotNull ConfigurationSection section) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : section.getValues(false).entrySet()) {
+            Object value = entry.getValue();
+            values.put(entry.getKey(), (value instanceof ConfigurationSection) ? toMap((ConfigurationSection) value) : value);
         }
+        return values;
     }
 
     private boolean hasSerializedTypeKey(MappingNode node) {
@@ -187,6 +345,18 @@ public class YamlConfiguration extends FileConfiguration {
         return false;
     }
 
+    private void flattenMapping(@NotNull MappingNode node) {
+        // Flattening constructs every key, which is only worth it when there are merge keys or duplicates to resolve
+        Set<String> keys = new HashSet<String>();
+        for (NodeTuple nodeTuple : node.getValue()) {
+            Node keyNode = nodeTuple.getKeyNode();
+            if (!(keyNode instanceof ScalarNode) || keyNode.getTag().equals(Tag.MERGE) || !keys.add(((ScalarNode) keyNode).getValue())) {
+                constructor.flattenMapping(node);
+                return;
+            }
+        }
+    }
+
     private MappingNode toNodeTree(@NotNull ConfigurationSection section) {
         List<NodeTuple> nodeTuples = new ArrayList<>();
         for (Map.Entry<String, Object> entry : section.getValues(false).entrySet()) {
@@ -365,4 +535,172 @@ public class YamlConfiguration extends FileConfiguration {
 
         return config;
     }
+
+    /**
+     * 第一次被访问时才从节点转换内容的配置节.
+     */
+    private final class LazySection extends MemorySection {
+        private MappingNode node;
+
+        private LazySection(@NotNull ConfigurationSection parent, @NotNull String path, @NotNull MappingNode node) {
+            super(parent, path);
+            this.node = node;
+        }
+
+        @Override
+        protected void materialize() {
+            MappingNode node = this.node;
+            if (node != null) {
+                this.node = null;
+                fromNodeTree(node, this);
+            }
+        }
+    }
+
+    /**
+     * 边解析边转换的组合器.
+     * <p>
+     * 没有锚点和显式标签的映射被视为配置节: 每组合完一个键值对, 就立即把它转换到对应的配置节中,
+     * 而不会把它加入映射节点, 因此这些映射在节点树中始终是空的. 其他节点仍按原样组合.
+     * 以 {@link ConfigurationSerialization#SERIALIZED_TYPE_KEY} 为键的映射是序列化的对象,
+     * 遇到该键后, 其余的键值对会被保留在节点中, 在映射结束时与已转换的部分一起反序列化.
+     */
+    private final class SectionComposer extends Composer {
+        private final Map<Node, ConfigurationSection> sections = new IdentityHashMap<Node, ConfigurationSection>();
+        private final Map<Node, ConfigurationSection> serialized = new IdentityHashMap<Node, ConfigurationSection>();
+        private ConfigurationSection pendingParent;
+        private String pendingKey;
+        private ConfigurationSection claimed;
+        private boolean firstKey = true;
+
+        private SectionComposer(@NotNull Reader reader) {
+            super(new ParserImpl(new StreamReader(reader), yamlLoaderOptions), new Resolver(), yamlLoaderOptions);
+        }
+
+        @Nullable
+        private Node compose() {
+            // A null key stands for the configuration itself
+            pendingParent = YamlConfiguration.this;
+            Node node = getSingleNode();
+            pendingParent = null;
+
+            if (node instanceof MappingNode && sections.remove(node) == null) {
+                // The root could not be converted while parsing, e.g. as it is anchored
+                adjustNodeComments((MappingNode) node);
+                fromNodeTree((MappingNode) node, YamlConfiguration.this);
+            }
+            return node;
+        }
+
+        @Override
+        protected Node composeSequenceNode(String anchor) {
+            pendingParent = null;
+            pendingKey = null;
+            return super.composeSequenceNode(anchor);
+        }
+
+        @Override
+        protected Node composeMappingNode(String anchor) {
+            ConfigurationSection parent = pendingParent;
+            String key = pendingKey;
+            pendingParent = null;
+            pendingKey = null;
+
+            // Anchored mappings may be referenced again by an alias, so they have to be composed in full
+            if (parent != null && anchor == null && ((MappingStartEvent) parser.peekEvent()).getImplicit()) {
+                claimed = (key == null) ? parent : parent.createSection(key);
+            }
+
+            Node node = super.composeMappingNode(anchor);
+            if (claimed != null) {
+                // Empty mapping, which never reached composeMappingChildren
+                sections.put(node, claimed);
+                claimed = null;
+            }
+            return node;
+        }
+
+        @Override
+        protected void composeMappingChildren(List<NodeTuple> children, MappingNode node) {
+            if (claimed != null) {
+                sections.put(node, claimed);
+                claimed = null;
+            }
+
+            ConfigurationSection section = sections.get(node);
+            if (section == null) {
+                super.composeMappingChildren(children, node);
+                return;
+            }
+
+            Node key = composeKeyNode(node);
+            if (section == YamlConfiguration.this && firstKey) {
+                firstKey = false;
+                adjustNodeComments(node, key);
+            }
+
+            if (key.getTag().equals(Tag.MERGE)) {
+                merge(key, composeValueNode(node), section);
+                return;
+            }
+
+            if (section != YamlConfiguration.this && key instanceof ScalarNode && ((ScalarNode) key).getValue().equals(ConfigurationSerialization.SERIALIZED_TYPE_KEY)) {
+                sections.remove(node);
+                serialized.put(node, section);
+                children.add(new NodeTuple(key, composeValueNode(node)));
+                return;
+            }
+
+            String keyString = String.valueOf(constructor.constructValue(key));
+            if (!options().lazySections()) {
+                pendingParent = section;
+                pendingKey = keyString;
+            }
+            Node value = composeValueNode(node);
+            pendingParent = null;
+            pendingKey = null;
+
+            if (sections.remove(value) == null) {
+                ConfigurationSection partial = serialized.remove(value);
+                if (partial != null) {
+                    section.set(keyString, deserialize(partial, (MappingNode) value));
+                } else {
+                    value = getRealNode(value);
+                    fromNode(value, section, keyString);
+                }
+            }
+            setComments(key, value, section, keyString);
+        }
+
+        private void merge(@NotNull Node key, @NotNull Node value, @NotNull ConfigurationSection section) {
+            List<NodeTuple> tuples = new ArrayList<NodeTuple>(1);
+            tuples.add(new NodeTuple(key, value));
+            MappingNode merged = new MappingNode(Tag.MAP, tuples, DumperOptions.FlowStyle.BLOCK);
+            merged.setMerged(true);
+            constructor.flattenMapping(merged);
+
+            for (NodeTuple nodeTuple : merged.getValue()) {
+                String keyString = String.valueOf(constructor.constructValue(nodeTuple.getKeyNode()));
+                // Explicit entries take precedence, later ones simply overwrite the merged value
+                if (!section.contains(keyString, true)) {
+                    fromNode(getRealNode(nodeTuple.getValueNode()), section, keyString);
+                }
+            }
+        }
+
+        @NotNull
+        private Object deserialize(@NotNull ConfigurationSection partial, @NotNull MappingNode node) {
+            Map<String, Object> typed = toMap(partial);
+            flattenMapping(node);
+            for (NodeTuple nodeTuple : node.getValue()) {
+                typed.put(String.valueOf(constructor.constructValue(nodeTuple.getKeyNode())), constructor.constructValue(nodeTuple.getValueNode()));
+            }
+
+            try {
+                return ConfigurationSerialization.deserializeObject(typed);
+            } catch (IllegalArgumentException ex) {
+                throw new YAMLException("Could not deserialize object", ex);
+            }
+        }
+    }
 }
@@ -11,6 +11,7 @@ import org.jetbrains.annotations.Nullable;
 public class YamlConfigurationOptions extends FileConfigurationOptions {
     private int indent = 2;
     private int width = 80;
+    private boolean lazySections = false;
 
     protected YamlConfigurationOptions(@NotNull YamlConfiguration configuration) {
         super(configuration);
@@ -137,4 +138,54 @@ public class YamlConfigurationOptions extends FileConfigurationOptions {
         this.width = value;
         return this;
     }
+
+    /**
+     * 获取加载时是否延迟转换子节.
+     * <p>
+     * 开启后, 加载时只会转换根节中的值, 每个子节保留解析得到的 Yaml 节点,
+     * 直到它的内容第一次被访问时才转换为值. 从未被读取的子节因此不会被转换.
+     * 未转换的节点占用的内存通常多于转换后的值, 因此此选项适合只会读取其中一小部分的文件.
+     * 注意, 子节中的错误(例如无法反序列化的对象)也会推迟到第一次访问该子节时,
+     * 以 {@link org.yaml.snakeyaml.error.YAMLException} 的形式抛出.
+     * <p>
+     * 默认为 false.
+     * <p>
+     * 原文：
+     * Gets whether subsections are converted lazily when loading.
+     * <p>
+     * If enabled, loading only converts the values of the root section. Each
+     * subsection keeps its parsed Yaml node until its contents are accessed
+     * for the first time, so subsections that are never read are never
+     * converted. Unconverted nodes usually take more memory than the converted
+     * values, so this suits files of which only a small part is ever read.
+     * Note that errors within a subsection, such as objects that
+     * cannot be deserialized, are deferred as well and thrown as a
+     * {@link org.yaml.snakeyaml.error.YAMLException} on first access.
+     * <p>
+     * Defaults to false.
+     *
+     * @return 是否延迟转换子节.
+     */
+    public boolean lazySections() {
+        return lazySections;
+    }
+
+    /**
+     * 设置加载时是否延迟转换子节.
+     * <p>
+     * 详见 {@link #lazySections()}.
+     * <p>
+     * 原文：
+     * Sets whether subsections are converted lazily when loading.
+     * <p>
+     * See {@link #lazySections()} for details.
+     *
+     * @param value 是否延迟转换子节.
+     * @return 此对象, 用于链式调用.
+     */
+    @NotNull
+    public YamlConfigurationOptions lazySections(boolean value) {
+        this.lazySections = value;
+        return this;
+    }
 }
@@ -37,6 +37,20 @@ public class YamlConstructor extends SafeConstructor {
         return constructObject(node);
     }
 
+    /**
+     * 构造一个独立的值, 构造完成后不再保留对其中任何节点的引用.
+     * <p>
+     * {@link #construct(Node)} 会记住每个已构造的节点, 直到此构造器被丢弃;
+     * 逐个转换节点的加载过程应使用此方法, 以免整个节点树在加载后仍被引用.
+     *
+     * @param node 要构造的节点
+     * @return 构造的值
+     */
+    @Nullable
+    Object constructValue(@NotNull Node node) {
+        return constructDocument(node);
+    }
+
     private class ConstructCustomObject extends ConstructYamlMap {
 
         @Nullable
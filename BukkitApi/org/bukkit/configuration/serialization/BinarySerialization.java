@@ -0,0 +1,575 @@
+package org.bukkit.configuration.serialization;
+
+import com.google.common.base.Preconditions;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link ConfigurationSerializable} 对象的紧凑二进制格式.
+ * <p>
+ * 与把 {@link ConfigurationSerializable#serialize()} 的结果写成 Yaml, 或经由
+ * {@link org.bukkit.util.io.BukkitObjectOutputStream} 使用 Java 序列化相比, 此格式:
+ * <ul>
+ * <li>在每个流中只写出一次类的别名, 之后以序号引用;</li>
+ * <li>为每个类记录其 {@link ConfigurationSerializable#serialize()} 返回的键的顺序(即结构),
+ * 结构相同的对象只写出值, 不再重复写出键;</li>
+ * <li>整数以变长的 zigzag 编码写出, 整数值的 double 也是如此;</li>
+ * <li>读取时通过缓存的方法句柄调用反序列化方法, 而不是每次都重新反射查找.</li>
+ * </ul>
+ * 支持的值与 Yaml 配置相同: null, 布尔值, 数字, 字符, 字符串, 列表, 集合, 映射,
+ * {@link ConfigurationSection}(写为映射)以及已注册的 {@link ConfigurationSerializable}.
+ * <p>
+ * 别名与结构的表保存在 {@link Encoder} 与 {@link Decoder} 中, 因此大量对象应写入同一个流,
+ * 并按相同的顺序从同一个流中读取. 读取时使用 {@link ConfigurationSerialization#getClassByAlias(String)}
+ * 查找类, 因此写入与读取的双方都必须注册了相同的类.
+ */
+public final class BinarySerialization {
+    private static final int MAGIC = 0xB5C0;
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int BYTE = 3;
+    private static final int SHORT = 4;
+    private static final int INT = 5;
+    private static final int LONG = 6;
+    private static final int FLOAT = 7;
+    private static final int DOUBLE = 8;
+    private static final int INTEGRAL_DOUBLE = 9;
+    private static final int CHAR = 10;
+    private static final int STRING = 11;
+    private static final int LIST = 12;
+    private static final int SET = 13;
+    private static final int MAP = 14;
+    private static final int OBJECT = 15;
+
+    // Larger strings are read in growing chunks, so a corrupt length cannot allocate more than the input holds
+    private static final int STRING_CHUNK = 8192;
+
+    private static final long NEGATIVE_ZERO = Double.doubleToRawLongBits(-0.0D);
+    private static final ClassValue<MethodHandle> FACTORIES = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(@NotNull Class<?> type) {
+            return findFactory(type);
+        }
+    };
+
+    private BinarySerialization() {
+    }
+
+    /**
+     * 将一个值编码为字节数组.
+     * <p>
+     * 原文：
+     * Encodes a value into a byte array.
+     *
+     * @param value 要编码的值
+     * @return 编码后的字节
+     * @throws IllegalArgumentException 如果值或其中的元素的类型不受支持
+     */
+    @NotNull
+    public static byte[] encode(@Nullable Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Encoder encoder = new Encoder(bytes)) {
+            encoder.writeObject(value);
+        } catch (IOException ex) {
+            throw new AssertionError(ex); // Not thrown by ByteArrayOutputStream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 从由 {@link #encode(Object)} 编码的字节数组解码一个值.
+     * <p>
+     * 原文：
+     * Decodes a value from a byte array encoded by {@link #encode(Object)}.
+     *
+     * @param bytes 编码后的字节
+     * @return 解码的值
+     * @throws IOException 如果数据已损坏, 或者其中的对象无法被反序列化
+     */
+    @Nullable
+    public static Object decode(@NotNull byte[] bytes) throws IOException {
+        Preconditions.checkArgument(bytes != null, "Bytes cannot be null");
+
+        try (Decoder decoder = new Decoder(new ByteArrayInputStream(bytes))) {
+            return decoder.readObject();
+        }
+    }
+
+    @Nullable
+    private static MethodHandle findFactory(@NotNull Class<?> type) {
+        // Same order as ConfigurationSerialization#deserialize: deserialize(Map), valueOf(Map), then a Map constructor
+        MethodType factoryType = MethodType.methodType(Object.class, Map.class);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (String name : new String[]{"deserialize", "valueOf"}) {
+            try {
+                Method method = type.getDeclaredMethod(name, Map.class);
+                if (Modifier.isStatic(method.getModifiers()) && ConfigurationSerializable.class.isAssignableFrom(method.getReturnType())) {
+                    return lookup.unreflect(method).asType(factoryType);
+                }
+            } catch (NoSuchMethodException | IllegalAccessException | SecurityException ex) {
+                // Try the next way
+            }
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor(Map.class);
+            return lookup.unreflectConstructor(constructor).asType(factoryType);
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 向输出流写入值的编码器.
+     * <p>
+     * 编码器不是线程安全的.
+     */
+    public static final class Encoder implements Closeable, Flushable {
+        private final DataOutputStream out;
+        private final Map<Class<?>, Integer> classes = new IdentityHashMap<Class<?>, Integer>();
+        private final Map<String, Integer> keys = new HashMap<String, Integer>();
+        private final Map<List<String>, Integer> shapes = new HashMap<List<String>, Integer>();
+
+        /**
+         * 创建写入给定输出流的编码器, 并立即写出格式的头部.
+         * <p>
+         * 原文：
+         * Creates an encoder writing to the given stream, writing the header
+         * of the format right away.
+         *
+         * @param out 输出流
+         * @throws IOException 如果写入头部时发生 I/O 错误
+         */
+        public Encoder(@NotNull OutputStream out) throws IOException {
+            Preconditions.checkArgument(out != null, "Stream cannot be null");
+
+            this.out = new DataOutputStream(out);
+            this.out.writeShort(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        /**
+         * 写入一个值.
+         * <p>
+         * 原文：
+         * Writes a value.
+         *
+         * @param value 要写入的值
+         * @throws IOException 如果发生 I/O 错误
+         * @throws IllegalArgumentException 如果值或其中的元素的类型不受支持
+         */
+        public void writeObject(@Nullable Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String) {
+                out.writeByte(STRING);
+                writeString((String) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(((Boolean) value) ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                out.writeByte(INT);
+                writeVarLong(zigzag((Integer) value));
+            } else if (value instanceof Double) {
+                writeDouble((Double) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                writeVarLong(zigzag((Long) value));
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Short) {
+                out.writeByte(SHORT);
+                writeVarLong(zigzag((Short) value));
+            } else if (value instanceof Byte) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if (value instanceof Character) {
+                out.writeByte(CHAR);
+                writeVarLong((Character) value);
+            } else if (value instanceof ConfigurationSerializable) {
+                writeSerializable((ConfigurationSerializable) value);
+            } else if (value instanceof ConfigurationSection) {
+                writeMap(((ConfigurationSection) value).getValues(false));
+            } else if (value instanceof Map) {
+                writeMap((Map<?, ?>) value);
+            } else if (value instanceof List) {
+                out.writeByte(LIST);
+                writeElements((List<?>) value);
+            } else if (value instanceof Set) {
+                out.writeByte(SET);
+                writeElements((Set<?>) value);
+            } else {
+                throw new IllegalArgumentException("Cannot encode " + value.getClass().getName());
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        private void writeDouble(double value) throws IOException {
+            int integral = (int) value;
+            if (integral == value && Double.doubleToRawLongBits(value) != NEGATIVE_ZERO) {
+                out.writeByte(INTEGRAL_DOUBLE);
+                writeVarLong(zigzag(integral));
+            } else {
+                out.writeByte(DOUBLE);
+                out.writeDouble(value);
+            }
+        }
+
+        private void writeSerializable(@NotNull ConfigurationSerializable value) throws IOException {
+            Map<String, Object> fields = value.serialize();
+            out.writeByte(OBJECT);
+
+            Class<?> type = value.getClass();
+            Integer typeIndex = classes.get(type);
+            if (typeIndex == null) {
+                classes.put(type, classes.size());
+                writeVarLong(0);
+                writeString(ConfigurationSerialization.getAlias(value.getClass()));
+            } else {
+                writeVarLong(typeIndex + 1);
+            }
+
+            List<String> shape = Arrays.asList(fields.keySet().toArray(new String[0]));
+            Integer shapeIndex = shapes.get(shape);
+            if (shapeIndex == null) {
+                shapes.put(shape, shapes.size());
+                writeVarLong(0);
+                writeVarLong(shape.size());
+                for (String key : shape) {
+                    writeKey(key);
+                }
+            } else {
+                writeVarLong(shapeIndex + 1);
+            }
+
+            for (Object field : fields.values()) {
+                writeObject(field);
+            }
+        }
+
+        private void writeMap(@NotNull Map<?, ?> map) throws IOException {
+            out.writeByte(MAP);
+            writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeObject(entry.getKey());
+                writeObject(entry.getValue());
+            }
+        }
+
+        private void writeElements(@NotNull Collection<?> elements) throws IOException {
+            writeVarLong(elements.size());
+            for (Object element : elements) {
+                writeObject(element);
+            }
+        }
+
+        private void writeKey(@NotNull String key) throws IOException {
+            Integer index = keys.get(key);
+            if (index == null) {
+                keys.put(key, keys.size());
+                writeVarLong(0);
+                writeString(key);
+            } else {
+                writeVarLong(index + 1);
+            }
+        }
+
+        private void writeString(@NotNull String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        private static long zigzag(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+
+    /**
+     * 从输入流读取由 {@link Encoder} 写入的值的解码器.
+     * <p>
+     * 解码器不是线程安全的.
+     */
+    public static final class Decoder implements Closeable {
+        private final DataInputStream in;
+        private final List<ClassEntry> classes = new ArrayList<ClassEntry>();
+        private final List<String> keys = new ArrayList<String>();
+        private final List<String[]> shapes = new ArrayList<String[]>();
+
+        /**
+         * 创建读取给定输入流的解码器, 并立即读取格式的头部.
+         * <p>
+         * 原文：
+         * Creates a decoder reading from the given stream, reading the header
+         * of the format right away.
+         *
+         * @param in 输入流
+         * @throws IOException 如果头部无效, 或者读取时发生 I/O 错误
+         */
+        public Decoder(@NotNull InputStream in) throws IOException {
+            Preconditions.checkArgument(in != null, "Stream cannot be null");
+
+            this.in = new DataInputStream(in);
+            if (this.in.readUnsignedShort() != MAGIC) {
+                throw new StreamCorruptedException("Not a binary serialization stream");
+            }
+            int version = this.in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported binary serialization version " + version);
+            }
+        }
+
+        /**
+         * 读取下一个值.
+         * <p>
+         * 列表, 集合与映射分别被读取为 {@link ArrayList}, {@link LinkedHashSet} 与 {@link LinkedHashMap}.
+         * <p>
+         * 原文：
+         * Reads the next value.
+         * <p>
+         * Lists, sets and maps are read as {@link ArrayList},
+         * {@link LinkedHashSet} and {@link LinkedHashMap} respectively.
+         *
+         * @return 读取的值
+         * @throws EOFException 如果流中已没有更多的值
+         * @throws IOException 如果数据已损坏, 或者其中的对象无法被反序列化
+         */
+        @Nullable
+        public Object readObject() throws IOException {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case BYTE:
+                    return in.readByte();
+                case SHORT:
+                    return (short) unzigzag(readVarLong());
+                case INT:
+                    return (int) unzigzag(readVarLong());
+                case LONG:
+                    return unzigzag(readVarLong());
+                case FLOAT:
+                    return in.readFloat();
+                case DOUBLE:
+                    return in.readDouble();
+                case INTEGRAL_DOUBLE:
+                    return (double) unzigzag(readVarLong());
+                case CHAR:
+                    return (char) readVarLong();
+                case STRING:
+                    return readString();
+                case LIST:
+                    // Collections are never sized from the stream, so corrupt sizes only cost what the input holds
+                    int listSize = readSize();
+                    List<Object> list = new ArrayList<Object>();
+                    for (int i = 0; i < listSize; i++) {
+                        list.add(readObject());
+                    }
+                    return list;
+                case SET:
+                    int setSize = readSize();
+                    Set<Object> set = new LinkedHashSet<Object>();
+                    for (int i = 0; i < setSize; i++) {
+                        set.add(readObject());
+                    }
+                    return set;
+                case MAP:
+                    int mapSize = readSize();
+                    Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+                    for (int i = 0; i < mapSize; i++) {
+                        map.put(readObject(), readObject());
+                    }
+                    return map;
+                case OBJECT:
+                    return readSerializable();
+                default:
+                    throw new StreamCorruptedException("Unknown tag " + tag);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        @NotNull
+        private ConfigurationSerializable readSerializable() throws IOException {
+            ClassEntry entry;
+            int typeIndex = readIndex(classes.size());
+            if (typeIndex == -1) {
+                String alias = readString();
+                Class<? extends ConfigurationSerializable> type = ConfigurationSerialization.getClassByAlias(alias);
+                if (type == null) {
+                    throw new StreamCorruptedException("Specified class does not exist ('" + alias + "')");
+                }
+                entry = new ClassEntry(type, alias);
+                classes.add(entry);
+            } else {
+                entry = classes.get(typeIndex);
+            }
+            Class<? extends ConfigurationSerializable> type = entry.type;
+
+            String[] shape;
+            int shapeIndex = readIndex(shapes.size());
+            if (shapeIndex == -1) {
+                int shapeSize = readSize();
+                List<String> shapeKeys = new ArrayList<String>();
+                for (int i = 0; i < shapeSize; i++) {
+                    int keyIndex = readIndex(keys.size());
+                    if (keyIndex == -1) {
+                        String key = readString();
+                        keys.add(key);
+                        shapeKeys.add(key);
+                    } else {
+                        shapeKeys.add(keys.get(keyIndex));
+                    }
+                }
+                shape = shapeKeys.toArray(new String[shapeKeys.size()]);
+                shapes.add(shape);
+            } else {
+                shape = shapes.get(shapeIndex);
+            }
+
+            // Mirror what YamlConstructor passes along, the type key included
+            Map<String, Object> args = new LinkedHashMap<String, Object>();
+            args.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, entry.alias);
+            for (String key : shape) {
+                args.put(key, readObject());
+            }
+
+            MethodHandle factory = FACTORIES.get(type);
+            if (factory == null) {
+                throw new StreamCorruptedException("No way to deserialize " + type.getName());
+            }
+
+            Object result;
+            try {
+                result = factory.invokeExact((Map) args);
+            } catch (Throwable ex) {
+                throw new IOException("Could not deserialize " + type.getName(), ex);
+            }
+            if (result == null) {
+                throw new IOException("Could not deserialize " + type.getName() + ": factory returned null");
+            }
+            return (ConfigurationSerializable) result;
+        }
+
+        private int readIndex(int tableSize) throws IOException {
+            long value = readVarLong();
+            if (value < 0 || value > tableSize) {
+                throw new StreamCorruptedException("Invalid table index " + (value - 1));
+            }
+            return (int) value - 1;
+        }
+
+        private int readSize() throws IOException {
+            long size = readVarLong();
+            if (size < 0 || size > Integer.MAX_VALUE - 8) {
+                throw new StreamCorruptedException("Invalid size " + size);
+            }
+            return (int) size;
+        }
+
+        @NotNull
+        private String readString() throws IOException {
+            int size = readSize();
+            if (size <= STRING_CHUNK) {
+                byte[] bytes = new byte[size];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            byte[] bytes = new byte[STRING_CHUNK];
+            int read = 0;
+            while (read < size) {
+                if (read == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, (int) Math.min(size, 2L * bytes.length));
+                }
+                int count = in.read(bytes, read, bytes.length - read);
+                if (count < 0) {
+                    throw new EOFException();
+                }
+                read += count;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Malformed variable-length number");
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    private static final class ClassEntry {
+        private final Class<? extends ConfigurationSerializable> type;
+        private final String alias;
+
+        private ClassEntry(@NotNull Class<? extends ConfigurationSerializable> type, @NotNull String alias) {
+            this.type = type;
+            this.alias = alias;
+        }
+    }
+}
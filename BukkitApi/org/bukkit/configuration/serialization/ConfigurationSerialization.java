@@ -5,8 +5,8 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bukkit.Color;
@@ -30,7 +30,8 @@ import org.jetbrains.annotations.Nullable;
 public class ConfigurationSerialization {
     public static final String SERIALIZED_TYPE_KEY = "==";
     private final Class<? extends ConfigurationSerializable> clazz;
-    private static Map<String, Class<? extends ConfigurationSerializable>> aliases = new HashMap<String, Class<? extends ConfigurationSerializable>>();
+    // Plugin class loaders register classes from whichever thread loads them
+    private static Map<String, Class<? extends ConfigurationSerializable>> aliases = new ConcurrentHashMap<String, Class<? extends ConfigurationSerializable>>();
 
     static {
         registerClass(Vector.class);
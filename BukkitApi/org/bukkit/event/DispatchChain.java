@@ -0,0 +1,109 @@
+package org.bukkit.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link HandlerList} 合并(bake)后的事件分发链.
+ * <p>
+ * 分发链中只包含合并时所属插件已启用的监听器, 并按优先级顺序被划分为若干连续的段.
+ * 段的类型交替出现: 偶数段中的监听器总是会被调用, 奇数段中的监听器在事件已被取消时跳过.
+ * 第一段总是 "总是调用" 段, 但可能为空.
+ * <p>
+ * 分发链是不可变的, 当处理器列表发生改动时会被重新合并.
+ */
+public final class DispatchChain {
+    private final RegisteredListener[] listeners;
+    private final int[] segmentEnds;
+
+    DispatchChain(@NotNull RegisteredListener[] handlers) {
+        List<RegisteredListener> enabled = new ArrayList<RegisteredListener>(handlers.length);
+        List<Integer> ends = new ArrayList<Integer>();
+        boolean skipWhenCancelled = false;
+        for (RegisteredListener listener : handlers) {
+            if (!listener.getPlugin().isEnabled()) {
+                continue;
+            }
+            if (listener.isIgnoringCancelled() != skipWhenCancelled) {
+                ends.add(enabled.size());
+                skipWhenCancelled = !skipWhenCancelled;
+            }
+            enabled.add(listener);
+        }
+        ends.add(enabled.size());
+
+        this.listeners = enabled.toArray(new RegisteredListener[enabled.size()]);
+        this.segmentEnds = new int[ends.size()];
+        for (int i = 0; i < segmentEnds.length; i++) {
+            segmentEnds[i] = ends.get(i);
+        }
+    }
+
+    /**
+     * 获取分发链中按优先级排列的所有监听器.
+     * <p>
+     * 返回的数组不应被修改.
+     * <p>
+     * 原文：Gets all listeners of this chain, in priority order.
+     * <p>
+     * The returned array must not be modified.
+     *
+     * @return 监听器数组
+     */
+    @NotNull
+    public RegisteredListener[] getListeners() {
+        return listeners;
+    }
+
+    /**
+     * 获取分发链中段的数量.
+     * <p>
+     * 原文：Gets the number of segments in this chain.
+     *
+     * @return 段的数量, 至少为 1
+     */
+    public int getSegmentCount() {
+        return segmentEnds.length;
+    }
+
+    /**
+     * 获取指定段在 {@link #getListeners()} 中的结束下标(不包含).
+     * 每一段都从上一段的结束下标开始, 第一段从 0 开始.
+     * <p>
+     * 原文：Gets the exclusive end index of the given segment in
+     * {@link #getListeners()}. Every segment starts at the end index of the
+     * previous one, the first one starts at 0.
+     *
+     * @param segment 段的下标
+     * @return 该段的结束下标
+     */
+    public int getSegmentEnd(int segment) {
+        return segmentEnds[segment];
+    }
+
+    /**
+     * 检测指定段中的监听器是否会在事件已被取消时跳过.
+     * <p>
+     * 原文：Checks if the listeners of the given segment are skipped when the
+     * event has been cancelled.
+     *
+     * @param segment 段的下标
+     * @return 如果该段的监听器忽略已取消的事件则返回 true
+     */
+    public boolean isSkippedWhenCancelled(int segment) {
+        return (segment & 1) != 0;
+    }
+
+    /**
+     * 检测分发链中是否没有任何监听器.
+     * <p>
+     * 原文：Checks if this chain contains no listeners at all.
+     *
+     * @return 如果没有监听器则返回 true
+     */
+    public boolean isEmpty() {
+        return listeners.length == 0;
+    }
+}
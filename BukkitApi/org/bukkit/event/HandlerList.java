@@ -2,10 +2,15 @@ package org.bukkit.event;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.WeakHashMap;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredListener;
 import org.jetbrains.annotations.NotNull;
@@ -20,6 +25,11 @@ public class HandlerList {
      */
     private volatile RegisteredListener[] handlers = null;
 
+    /**
+     * 合并后的事件分发链, 与 {@link #handlers} 一同合并和失效.
+     */
+    private volatile DispatchChain chain = null;
+
     /**
      * 动态HandlerList.使用register()和unreguster()进行改动，当有任何改动的时候自动bake(合并)HandlerList.
      * <p>
@@ -36,6 +46,17 @@ public class HandlerList {
      */
     private static ArrayList<HandlerList> allLists = new ArrayList<HandlerList>();
 
+    /**
+     * 插件到其注册过监听器的处理器列表的反向索引, 使按插件注销时只需处理相关的列表.
+     * 索引只在注册时添加, 因此可能包含已不再有该插件监听器的列表.
+     */
+    private static final Map<Plugin, Set<HandlerList>> pluginIndex = new WeakHashMap<Plugin, Set<HandlerList>>();
+
+    /**
+     * 监听器到其所在的处理器列表的反向索引, 与 {@link #pluginIndex} 相同.
+     */
+    private static final Map<Listener, Set<HandlerList>> listenerIndex = new WeakHashMap<Listener, Set<HandlerList>>();
+
     /**
      * 合并(bake)所有处理器列表.最好用在所有正常的事件注册完毕后,即所有插件都加载完了,如果你使用fevents插件系统.
      * <p>
@@ -64,9 +85,16 @@ public class HandlerList {
                         list.clear();
                     }
                     h.handlers = null;
+                    h.chain = null;
                 }
             }
         }
+        synchronized (pluginIndex) {
+            pluginIndex.clear();
+        }
+        synchronized (listenerIndex) {
+            listenerIndex.clear();
+        }
     }
 
     /**
@@ -77,10 +105,8 @@ public class HandlerList {
      * @param plugin 要注销监听器的插件
      */
     public static void unregisterAll(@NotNull Plugin plugin) {
-        synchronized (allLists) {
-            for (HandlerList h : allLists) {
-                h.unregister(plugin);
-            }
+        for (HandlerList h : removeIndex(pluginIndex, plugin)) {
+            h.unregister(plugin);
         }
     }
 
@@ -92,10 +118,35 @@ public class HandlerList {
      * @param listener 要注销的监听器
      */
     public static void unregisterAll(@NotNull Listener listener) {
-        synchronized (allLists) {
-            for (HandlerList h : allLists) {
-                h.unregister(listener);
+        for (HandlerList h : removeIndex(listenerIndex, listener)) {
+            h.unregister(listener);
+        }
+    }
+
+    private static <K> void addIndex(@NotNull Map<K, Set<HandlerList>> index, @NotNull K key, @NotNull HandlerList list) {
+        synchronized (index) {
+            Set<HandlerList> lists = index.get(key);
+            if (lists == null) {
+                lists = new LinkedHashSet<HandlerList>();
+                index.put(key, lists);
             }
+            lists.add(list);
+        }
+    }
+
+    @NotNull
+    private static <K> Set<HandlerList> getIndex(@NotNull Map<K, Set<HandlerList>> index, @NotNull K key) {
+        synchronized (index) {
+            Set<HandlerList> lists = index.get(key);
+            return (lists != null) ? new LinkedHashSet<HandlerList>(lists) : Collections.<HandlerList>emptySet();
+        }
+    }
+
+    @NotNull
+    private static <K> Set<HandlerList> removeIndex(@NotNull Map<K, Set<HandlerList>> index, @NotNull K key) {
+        synchronized (index) {
+            Set<HandlerList> lists = index.remove(key);
+            return (lists != null) ? lists : Collections.<HandlerList>emptySet();
         }
     }
 
@@ -129,7 +180,10 @@ public class HandlerList {
         if (handlerslots.get(listener.getPriority()).contains(listener))
             throw new IllegalStateException("This listener is already registered to priority " + listener.getPriority().toString());
         handlers = null;
+        chain = null;
         handlerslots.get(listener.getPriority()).add(listener);
+        addIndex(pluginIndex, listener.getPlugin(), this);
+        addIndex(listenerIndex, listener.getListener(), this);
     }
 
     /**
@@ -157,6 +211,7 @@ public class HandlerList {
     public synchronized void unregister(@NotNull RegisteredListener listener) {
         if (handlerslots.get(listener.getPriority()).remove(listener)) {
             handlers = null;
+            chain = null;
         }
     }
 
@@ -177,7 +232,10 @@ public class HandlerList {
                 }
             }
         }
-        if (changed) handlers = null;
+        if (changed) {
+            handlers = null;
+            chain = null;
+        }
     }
 
     /**
@@ -197,7 +255,10 @@ public class HandlerList {
                 }
             }
         }
-        if (changed) handlers = null;
+        if (changed) {
+            handlers = null;
+            chain = null;
+        }
     }
 
     /**
@@ -206,12 +267,14 @@ public class HandlerList {
      * 原文：Bake HashMap and ArrayLists to 2d arrays - does nothing if not necessary
      */
     public synchronized void bake() {
-        if (handlers != null) return; // don't re-bake when still valid
+        if (handlers != null && chain != null) return; // don't re-bake when still valid
         List<RegisteredListener> entries = new ArrayList<RegisteredListener>();
         for (Entry<EventPriority, ArrayList<RegisteredListener>> entry : handlerslots.entrySet()) {
             entries.addAll(entry.getValue());
         }
-        handlers = entries.toArray(new RegisteredListener[entries.size()]);
+        RegisteredListener[] baked = entries.toArray(new RegisteredListener[entries.size()]);
+        chain = new DispatchChain(baked);
+        handlers = baked;
     }
 
     /**
@@ -228,6 +291,47 @@ public class HandlerList {
         return handlers;
     }
 
+    /**
+     * 获取与这个处理器列表相关的已合并的事件分发链.
+     * <p>
+     * 与 {@link #getRegisteredListeners()} 不同, 分发链中不包含合并时所属插件未启用的监听器,
+     * 且已按是否忽略已取消的事件分段, 以便在调用事件时省去对每个监听器的判断.
+     * <p>
+     * 原文：Get the baked dispatch chain associated with this handler list.
+     * <p>
+     * Unlike {@link #getRegisteredListeners()}, the chain does not contain
+     * listeners whose plugin was not enabled when it was baked, and is split
+     * into segments by whether cancelled events are ignored, saving the per
+     * listener checks when calling an event.
+     *
+     * @return 事件分发链
+     */
+    @NotNull
+    public DispatchChain getDispatchChain() {
+        DispatchChain chain;
+        while ((chain = this.chain) == null) bake(); // This prevents fringe cases of returning null
+        return chain;
+    }
+
+    /**
+     * 检测这个处理器列表是否有已启用的插件注册的监听器.
+     * <p>
+     * 本方法读取的是已合并的分发链, 在列表未改动时几乎没有开销,
+     * 可用于在没有任何监听器时跳过事件的构造.
+     * <p>
+     * 原文：Checks if this handler list has listeners registered by any enabled
+     * plugin.
+     * <p>
+     * This reads the baked dispatch chain and is almost free while the list
+     * is unchanged, so it can be used to skip constructing events nobody
+     * listens to.
+     *
+     * @return 如果有监听器则返回 true
+     */
+    public boolean hasListeners() {
+        return !getDispatchChain().isEmpty();
+    }
+
     /**
      * 获取与这个处理器列表相关的指定插件注册的监听器.
      * <p>
@@ -240,14 +344,12 @@ public class HandlerList {
     @NotNull
     public static ArrayList<RegisteredListener> getRegisteredListeners(@NotNull Plugin plugin) {
         ArrayList<RegisteredListener> listeners = new ArrayList<RegisteredListener>();
-        synchronized (allLists) {
-            for (HandlerList h : allLists) {
-                synchronized (h) {
-                    for (List<RegisteredListener> list : h.handlerslots.values()) {
-                        for (RegisteredListener listener : list) {
-                            if (listener.getPlugin().equals(plugin)) {
-                                listeners.add(listener);
-                            }
+        for (HandlerList h : getIndex(pluginIndex, plugin)) {
+            synchronized (h) {
+                for (List<RegisteredListener> list : h.handlerslots.values()) {
+                    for (RegisteredListener listener : list) {
+                        if (listener.getPlugin().equals(plugin)) {
+                            listeners.add(listener);
                         }
                     }
                 }
@@ -1,5 +1,6 @@
 package org.bukkit.generator;
 
+import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -33,6 +34,12 @@ import org.jetbrains.annotations.Nullable;
  * 上述列出的每个方法以及
  * {@link #getBaseHeight(WorldInfo, Random, int, int, HeightMap)}
  * <b>必须</b>完全线程安全，并且能够处理多个并发调用者。
+ * 无法做到这一点的步骤可以通过 {@link #isThreadSafe(GenerationStage)} 声明，服务器不会并发地执行这些步骤。
+ *
+ * 服务器会将处于同一步骤的多个区块作为一批传给
+ * {@link #generateBatch(WorldInfo, GenerationStage, List)}，每批的区块数量不超过
+ * {@link #getBatchSize(GenerationStage)}。默认实现逐个调用上述方法，
+ * 生成器可以重写它以便在整批区块之间共享噪声等计算结果。
  *
  * 世界生成的某些方面可以委托给原版生成器。
  * 可以重写以下方法来启用此功能：
@@ -164,6 +171,101 @@ public abstract class ChunkGenerator {
     public void generateCaves(@NotNull WorldInfo worldInfo, @NotNull Random random, int chunkX, int chunkZ, @NotNull ChunkData chunkData) {
     }
 
+    /**
+     * 为一批处于同一生成步骤的区块执行该步骤.
+     * <p>
+     * 默认实现对批中的每一个区块依次调用该步骤对应的方法, 例如
+     * {@link #generateNoise(WorldInfo, Random, int, int, ChunkData)}.
+     * 重写此方法的生成器可以一次计算整批区块所需的噪声, 或者将整批区块分配给自己的线程.
+     * 无论如何, 此方法返回时批中的每一个区块都必须已完成该步骤.
+     * <p>
+     * 同一批中的区块互不相同, 但并不保证彼此相邻. 除非 {@link #isThreadSafe(GenerationStage)}
+     * 对该步骤返回 false, 服务器可能在多个线程中同时为不同的批调用此方法.
+     * 与单个区块的方法相同, 此方法<b>绝不</b>应该尝试获取批中的区块.
+     * <p>
+     * 原文：
+     * Runs the given generation stage for a batch of chunks.
+     * <p>
+     * The default implementation calls the method of the stage, for example
+     * {@link #generateNoise(WorldInfo, Random, int, int, ChunkData)}, for
+     * each chunk of the batch in turn. Generators overriding this method may
+     * compute the noise of the whole batch at once, or hand the chunks to
+     * their own threads. Either way, every chunk of the batch must have
+     * completed the stage when this method returns.
+     * <p>
+     * The chunks of a batch are distinct, but not necessarily adjacent to
+     * each other. Unless {@link #isThreadSafe(GenerationStage)} returns false
+     * for the stage, the server may call this method for different batches
+     * on several threads at the same time. Like the per-chunk methods, this
+     * method should <b>never</b> attempt to get the chunks of the batch.
+     *
+     * @param worldInfo 这些区块将用于的世界的世界信息
+     * @param stage 要执行的生成步骤
+     * @param chunks 要生成的区块
+     */
+    public void generateBatch(@NotNull WorldInfo worldInfo, @NotNull GenerationStage stage, @NotNull List<? extends BatchedChunk> chunks) {
+        for (BatchedChunk chunk : chunks) {
+            switch (stage) {
+                case NOISE:
+                    generateNoise(worldInfo, chunk.getRandom(), chunk.getX(), chunk.getZ(), chunk.getChunkData());
+                    break;
+                case SURFACE:
+                    generateSurface(worldInfo, chunk.getRandom(), chunk.getX(), chunk.getZ(), chunk.getChunkData());
+                    break;
+                case BEDROCK:
+                    generateBedrock(worldInfo, chunk.getRandom(), chunk.getX(), chunk.getZ(), chunk.getChunkData());
+                    break;
+                case CAVES:
+                    generateCaves(worldInfo, chunk.getRandom(), chunk.getX(), chunk.getZ(), chunk.getChunkData());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown generation stage " + stage);
+            }
+        }
+    }
+
+    /**
+     * 获取给定的生成步骤是否可以被多个线程同时执行.
+     * <p>
+     * 返回 false 时, 服务器会保证同一时刻至多只有一个线程在执行此生成器的该步骤,
+     * 其他步骤以及其他区块的生成不受影响.
+     * 默认对所有步骤返回 true, 即本类文档中要求的线程安全.
+     * <p>
+     * 原文：
+     * Gets if the given generation stage may run on several threads at the
+     * same time.
+     * <p>
+     * If false is returned, the server makes sure that at most one thread
+     * runs this stage of this generator at any time. Other stages and the
+     * generation of other chunks are not affected. Returns true for all
+     * stages by default, as required by the documentation of this class.
+     *
+     * @param stage 生成步骤
+     * @return 如果该步骤是线程安全的则返回true
+     */
+    public boolean isThreadSafe(@NotNull GenerationStage stage) {
+        return true;
+    }
+
+    /**
+     * 获取传给 {@link #generateBatch(WorldInfo, GenerationStage, List)} 的每批区块的最大数量.
+     * <p>
+     * 这只是给服务器的建议, 批中的区块可能更少. 默认为 1, 即逐个生成区块.
+     * <p>
+     * 原文：
+     * Gets the maximum number of chunks per batch passed to
+     * {@link #generateBatch(WorldInfo, GenerationStage, List)}.
+     * <p>
+     * This is only a hint for the server, batches may contain fewer chunks.
+     * Defaults to 1, that is chunks are generated one by one.
+     *
+     * @param stage 生成步骤
+     * @return 每批区块的最大数量, 至少为1
+     */
+    public int getBatchSize(@NotNull GenerationStage stage) {
+        return 1;
+    }
+
     /**
      * 当在 {@link org.bukkit.WorldCreator} 或服务器配置文件中未设置 {@link BiomeProvider} 时调用此方法.
      * 因此，一个插件可以提供生物群系，另一个插件可以提供生成.
@@ -684,6 +786,77 @@ public abstract class ChunkGenerator {
         return shouldGenerateStructures();
     }
 
+    /**
+     * 区块生成的步骤, 按照执行的顺序排列.
+     */
+    public enum GenerationStage {
+        /**
+         * {@link #generateNoise(WorldInfo, Random, int, int, ChunkData)}
+         */
+        NOISE,
+        /**
+         * {@link #generateSurface(WorldInfo, Random, int, int, ChunkData)}
+         */
+        SURFACE,
+        /**
+         * {@link #generateBedrock(WorldInfo, Random, int, int, ChunkData)}
+         */
+        BEDROCK,
+        /**
+         * {@link #generateCaves(WorldInfo, Random, int, int, ChunkData)}
+         */
+        CAVES;
+    }
+
+    /**
+     * 传给 {@link #generateBatch(WorldInfo, GenerationStage, List)} 的一批区块中的一个区块.
+     */
+    public static interface BatchedChunk {
+        /**
+         * 获取区块的X坐标.
+         * <p>
+         * 原文：
+         * Gets the X-coordinate of the chunk.
+         *
+         * @return 区块的X坐标
+         */
+        public int getX();
+
+        /**
+         * 获取区块的Z坐标.
+         * <p>
+         * 原文：
+         * Gets the Z-coordinate of the chunk.
+         *
+         * @return 区块的Z坐标
+         */
+        public int getZ();
+
+        /**
+         * 获取生成此区块时要使用的随机数生成器.
+         * <p>
+         * 每个区块都有自己的随机数生成器, 不应在区块之间共享.
+         * <p>
+         * 原文：
+         * Gets the random number generator to use for this chunk.
+         *
+         * @return 随机数生成器
+         */
+        @NotNull
+        public Random getRandom();
+
+        /**
+         * 获取要修改的区块数据.
+         * <p>
+         * 原文：
+         * Gets the chunk data to modify.
+         *
+         * @return 区块数据
+         */
+        @NotNull
+        public ChunkData getChunkData();
+    }
+
     /**
      * 区块的数据.
      */
@@ -834,6 +1007,124 @@ public abstract class ChunkGenerator {
          */
         public void setRegion(int xMin, int yMin, int zMin, int xMax, int yMax, int zMax, @NotNull BlockData blockData);
 
+        /**
+         * 以调色板的形式一次设置一个 16x16x16 的区块段中的所有方块.
+         * <p>
+         * 区块段覆盖 y 坐标 sectionY * 16（包含）到 sectionY * 16 + 16（不包含）.
+         * 段中位于 (x, y, z) 的方块被设置为 {@code palette[indexes[(y << 8) | (z << 4) | x]]},
+         * 其中 x, y, z 都是段内的相对坐标, 范围0-15（包含）.
+         * 实现可以直接将调色板与下标复制到区块段的存储中, 而不必逐个方块地设置.
+         * 段中位于最小高度以下或最大高度及以上的部分不会被设置.
+         * <p>
+         * 原文：
+         * Sets all blocks of a 16x16x16 section of this chunk at once, given
+         * as a palette.
+         * <p>
+         * The section spans the y positions from sectionY * 16 (inclusive) to
+         * sectionY * 16 + 16 (exclusive). The block at (x, y, z) of the section
+         * is set to {@code palette[indexes[(y << 8) | (z << 4) | x]]}, where
+         * x, y and z are relative to the section, from 0 to 15 (inclusive).
+         * Implementations may copy the palette and indexes straight into the
+         * storage of the section instead of setting the blocks one by one.
+         * Parts of the section below the minimum height or at or above the
+         * maximum height are not set.
+         *
+         * @param sectionY 区块段的y坐标, 即方块y坐标除以16向下取整
+         * @param palette 段中用到的方块数据, 不能包含null
+         * @param indexes 长度为4096的数组, 每一个元素都是调色板中的下标
+         * @throws IllegalArgumentException 如果下标数组的长度不是4096, 或者有下标超出了调色板的范围
+         */
+        public default void setSection(int sectionY, @NotNull BlockData[] palette, @NotNull short[] indexes) {
+            Preconditions.checkArgument(palette != null, "Palette cannot be null");
+            Preconditions.checkArgument(indexes != null && indexes.length == 4096, "Indexes must contain 4096 entries");
+            for (BlockData blockData : palette) {
+                Preconditions.checkArgument(blockData != null, "Palette cannot contain null");
+            }
+            for (short index : indexes) {
+                Preconditions.checkArgument(index >= 0 && index < palette.length, "Palette index %s out of bounds (palette size %s)", index, palette.length);
+            }
+
+            int baseY = sectionY << 4;
+            int yMin = Math.max(0, getMinHeight() - baseY);
+            int yMax = Math.min(16, getMaxHeight() - baseY);
+            for (int y = yMin; y < yMax; y++) {
+                for (int z = 0; z < 16; z++) {
+                    int row = (y << 8) | (z << 4);
+                    int x = 0;
+                    while (x < 16) {
+                        // Runs of the same block become a single region
+                        int index = indexes[row | x];
+                        int end = x + 1;
+                        while (end < 16 && indexes[row | end] == index) {
+                            end++;
+                        }
+                        if (end - x == 1) {
+                            setBlock(x, baseY + y, z, palette[index]);
+                        } else {
+                            setRegion(x, baseY + y, z, end, baseY + y + 1, z + 1, palette[index]);
+                        }
+                        x = end;
+                    }
+                }
+            }
+        }
+
+        /**
+         * 按照每一列的高度填充区块.
+         * <p>
+         * 对于区块中的每一列 (x, z), 从 yMin（包含）到 {@code heights[(z << 4) | x]}（不包含）的方块都被设置为给定的材质.
+         * 高度不大于 yMin 的列不会被修改. 适合一次性地根据高度图填充地形.
+         * <p>
+         * 原文：
+         * Fills the columns of this chunk up to the given heights.
+         * <p>
+         * For each column (x, z) of the chunk, the blocks from yMin (inclusive)
+         * to {@code heights[(z << 4) | x]} (exclusive) are set to the given
+         * material. Columns whose height is not above yMin are left untouched.
+         *
+         * @param yMin 填充的最小y位置（包含）
+         * @param heights 长度为256的数组, 为每一列填充的最大y位置（不包含）
+         * @param material 要设置的方块类型
+         * @throws IllegalArgumentException 如果高度数组的长度不是256
+         */
+        public default void setColumns(int yMin, @NotNull int[] heights, @NotNull Material material) {
+            Preconditions.checkArgument(material != null, "Material cannot be null");
+            setColumns(yMin, heights, material.createBlockData());
+        }
+
+        /**
+         * 按照每一列的高度填充区块.
+         * <p>
+         * 对于区块中的每一列 (x, z), 从 yMin（包含）到 {@code heights[(z << 4) | x]}（不包含）的方块都被设置为给定的方块数据.
+         * 高度不大于 yMin 的列不会被修改. 适合一次性地根据高度图填充地形.
+         * <p>
+         * 原文：
+         * Fills the columns of this chunk up to the given heights.
+         * <p>
+         * For each column (x, z) of the chunk, the blocks from yMin (inclusive)
+         * to {@code heights[(z << 4) | x]} (exclusive) are set to the given
+         * block data. Columns whose height is not above yMin are left
+         * untouched.
+         *
+         * @param yMin 填充的最小y位置（包含）
+         * @param heights 长度为256的数组, 为每一列填充的最大y位置（不包含）
+         * @param blockData 要设置的方块数据
+         * @throws IllegalArgumentException 如果高度数组的长度不是256
+         */
+        public default void setColumns(int yMin, @NotNull int[] heights, @NotNull BlockData blockData) {
+            Preconditions.checkArgument(heights != null && heights.length == 256, "Heights must contain 256 entries");
+            Preconditions.checkArgument(blockData != null, "BlockData cannot be null");
+
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int yMax = heights[(z << 4) | x];
+                    if (yMax > yMin) {
+                        setRegion(x, yMin, z, x + 1, yMax, z + 1, blockData);
+                    }
+                }
+            }
+        }
+
         /**
          * 获取x, y, z位置的方块类型.
          * <p>
@@ -0,0 +1,207 @@
+package org.bukkit.metadata;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 按主体分开存储的并发元数据存储, 可以代替 {@link MetadataStoreBase}.
+ * <p>
+ * 与 {@link MetadataStoreBase} 不同, 本类不会在每次访问时拼接主体与元数据键来生成字符串,
+ * 而是先按 {@link #getSubjectKey(Object)} 返回的主体键, 再按元数据键查找.
+ * 每个主体键与元数据键对应的值以不可变数组保存, 修改时整体替换, 因此读取操作无需加锁,
+ * 写入操作也只会锁住同一主体所在的哈希桶.
+ *
+ * @param <T> 主体的类型
+ */
+public abstract class ConcurrentMetadataStoreBase<T> {
+    private static final MetadataValue[] EMPTY = new MetadataValue[0];
+
+    private final Map<Object, Map<String, MetadataValue[]>> metadataMap = new ConcurrentHashMap<Object, Map<String, MetadataValue[]>>();
+
+    /**
+     * 向对象添加元数据值. 每个元数据值由特定{@link Plugin}拥有.
+     * 如果插件已经向对象添加了元数据值, 该值将被{@code newMetadataValue}的值替换.
+     * 多个插件可以为相同的{@code metadataKey}设置独立的值而不会冲突.
+     * <p>
+     * 原文：
+     * Adds a metadata value to an object. Each metadata value is owned by a
+     * specific {@link Plugin}. If a plugin has already added a metadata value
+     * to an object, that value will be replaced with the value of {@code
+     * newMetadataValue}. Multiple plugins can set independent values for the
+     * same {@code metadataKey} without conflict.
+     *
+     * @param subject 接收元数据的对象.
+     * @param metadataKey 用于标识此元数据的唯一键.
+     * @param newMetadataValue 要应用的元数据值.
+     * @throws IllegalArgumentException 如果值为null, 或拥有插件为null
+     * @see MetadataStore#setMetadata(Object, String, MetadataValue)
+     */
+    public void setMetadata(@NotNull T subject, @NotNull String metadataKey, @NotNull MetadataValue newMetadataValue) {
+        Preconditions.checkArgument(newMetadataValue != null, "Value cannot be null");
+        Plugin owningPlugin = newMetadataValue.getOwningPlugin();
+        Preconditions.checkArgument(owningPlugin != null, "Plugin cannot be null");
+        metadataMap.compute(getSubjectKey(subject), (subjectKey, entries) -> {
+            if (entries == null) {
+                entries = new ConcurrentHashMap<String, MetadataValue[]>(4);
+            }
+            entries.compute(metadataKey, (key, values) -> with(values, owningPlugin, newMetadataValue));
+            return entries;
+        });
+    }
+
+    /**
+     * 返回附加到对象的所有元数据值. 如果多个插件附加了元数据, 每个值都将被包含.
+     * <p>
+     * 原文：
+     * Returns all metadata values attached to an object. If multiple
+     * have attached metadata, each will value will be included.
+     *
+     * @param subject 正在查询的对象.
+     * @param metadataKey 正在查找的唯一元数据键.
+     * @return 值列表, 每个设置了请求值的插件一个.
+     * @see MetadataStore#getMetadata(Object, String)
+     */
+    @NotNull
+    public List<MetadataValue> getMetadata(@NotNull T subject, @NotNull String metadataKey) {
+        MetadataValue[] values = get(subject, metadataKey);
+        if (values == null) {
+            return Collections.emptyList();
+        }
+
+        List<MetadataValue> result = new ArrayList<MetadataValue>(values.length);
+        for (MetadataValue value : values) {
+            if (value.getOwningPlugin() != null) {
+                result.add(value);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * 测试对象上是否设置了元数据属性.
+     * <p>
+     * 原文：
+     * Tests to see if a metadata attribute has been set on an object.
+     *
+     * @param subject 执行has-metadata测试的对象.
+     * @param metadataKey 正在查询的唯一元数据键.
+     * @return metadataKey在主体中的存在性.
+     */
+    public boolean hasMetadata(@NotNull T subject, @NotNull String metadataKey) {
+        return get(subject, metadataKey) != null;
+    }
+
+    /**
+     * 从对象中移除指定插件拥有的元数据项.
+     * <p>
+     * 原文：
+     * Removes a metadata item owned by a plugin from a subject.
+     *
+     * @param subject 要移除元数据的对象.
+     * @param metadataKey 用于标识要移除的元数据的唯一键.
+     * @param owningPlugin 尝试移除元数据项的插件.
+     * @throws IllegalArgumentException 如果插件为null
+     * @see MetadataStore#removeMetadata(Object, String,
+     *     org.bukkit.plugin.Plugin)
+     */
+    public void removeMetadata(@NotNull T subject, @NotNull String metadataKey, @NotNull Plugin owningPlugin) {
+        Preconditions.checkArgument(owningPlugin != null, "Plugin cannot be null");
+        metadataMap.computeIfPresent(getSubjectKey(subject), (subjectKey, entries) -> {
+            entries.computeIfPresent(metadataKey, (key, values) -> without(values, owningPlugin));
+            return entries.isEmpty() ? null : entries;
+        });
+    }
+
+    /**
+     * 使元数据存储中所有来自指定插件的元数据失效.
+     * 这样做将强制每个失效的元数据项在下次被访问时重新计算.
+     * <p>
+     * 原文：
+     * Invalidates all metadata in the metadata store that originates from the
+     * given plugin. Doing this will force each invalidated metadata item to
+     * be recalculated the next time it is accessed.
+     *
+     * @param owningPlugin 请求失效的插件.
+     * @throws IllegalArgumentException 如果插件为null
+     * @see MetadataStore#invalidateAll(org.bukkit.plugin.Plugin)
+     */
+    public void invalidateAll(@NotNull Plugin owningPlugin) {
+        Preconditions.checkArgument(owningPlugin != null, "Plugin cannot be null");
+        for (Map<String, MetadataValue[]> entries : metadataMap.values()) {
+            for (MetadataValue[] values : entries.values()) {
+                for (MetadataValue value : values) {
+                    if (value.getOwningPlugin() == owningPlugin) {
+                        value.invalidate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取标识主体的键.
+     * <p>
+     * 返回的键必须正确实现 {@link Object#equals(Object)} 与 {@link Object#hashCode()},
+     * 任何两个等价的主体必须返回相等的键. 例如, 如果两个Player对象代表同一个玩家,
+     * 即使这两个对象无法通过引用相等性测试, 它们也必须返回相等的键, 比如该玩家的 UUID.
+     * 键会被强引用, 直到该主体的所有元数据都被移除.
+     * <p>
+     * 原文：
+     * Gets the key identifying a subject.
+     * <p>
+     * The returned key must properly implement {@link Object#equals(Object)}
+     * and {@link Object#hashCode()}, and any two equivalent subjects must
+     * return equal keys. For example, two Player objects must return equal
+     * keys, such as the player's UUID, if they represent the same player,
+     * even if the objects would fail a reference equality test. Keys are
+     * strongly referenced until all metadata of the subject is removed.
+     *
+     * @param subject 为此对象生成键.
+     * @return 给定对象的主体键.
+     */
+    @NotNull
+    protected abstract Object getSubjectKey(@NotNull T subject);
+
+    @Nullable
+    private MetadataValue[] get(@NotNull T subject, @NotNull String metadataKey) {
+        Map<String, MetadataValue[]> entries = metadataMap.get(getSubjectKey(subject));
+        return (entries == null) ? null : entries.get(metadataKey);
+    }
+
+    @NotNull
+    private static MetadataValue[] with(@Nullable MetadataValue[] values, @NotNull Plugin owningPlugin, @NotNull MetadataValue newMetadataValue) {
+        MetadataValue[] result = (values == null) ? EMPTY : without(values, owningPlugin);
+        if (result == null) {
+            result = EMPTY;
+        }
+        result = Arrays.copyOf(result, result.length + 1);
+        result[result.length - 1] = newMetadataValue;
+        return result;
+    }
+
+    @Nullable
+    private static MetadataValue[] without(@NotNull MetadataValue[] values, @NotNull Plugin owningPlugin) {
+        // Drops the value of the given plugin as well as values of plugins that have been garbage collected
+        int kept = 0;
+        MetadataValue[] result = new MetadataValue[values.length];
+        for (MetadataValue value : values) {
+            Plugin plugin = value.getOwningPlugin();
+            if (plugin != null && plugin != owningPlugin) {
+                result[kept++] = value;
+            }
+        }
+
+        if (kept == values.length) {
+            return values;
+        }
+        return (kept == 0) ? null : Arrays.copyOf(result, kept);
+    }
+}
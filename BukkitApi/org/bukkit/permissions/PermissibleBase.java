@@ -1,15 +1,22 @@
 package org.bukkit.permissions;
 
-import java.util.HashMap;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Level;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.SimplePluginManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -17,10 +24,23 @@ import org.jetbrains.annotations.Nullable;
  * 通过代理或扩展在任何 Permissible 对象中使用的基础 Permissible
  */
 public class PermissibleBase implements Permissible {
+    private static final long UNKNOWN_VERSION = -1;
+    private static volatile boolean wildcardResolution = false;
+    // Expansions only depend on the registered permissions, so permissibles share them
+    private static volatile DefaultLayer opDefaultLayer;
+    private static volatile DefaultLayer defaultLayer;
+    private static final Cache<NodeKey, Expansion> SHARED_NODES = CacheBuilder.newBuilder().weakValues().build();
+
     private final ServerOperator opable;
     private final Permissible parent;
     private final List<PermissionAttachment> attachments = new LinkedList<PermissionAttachment>();
-    private final Map<String, PermissionAttachmentInfo> permissions = new HashMap<String, PermissionAttachmentInfo>();
+    private volatile ResolvedPermissions resolved = ResolvedPermissions.EMPTY;
+    private volatile PermissionAttachment[] resolvedAttachments = new PermissionAttachment[0];
+    private final Map<PermissionAttachment, AttachmentLayer> attachmentLayers = new IdentityHashMap<PermissionAttachment, AttachmentLayer>();
+    private int announcedRecalculations;
+    private boolean invalidated = true;
+    private int batchDepth;
+    private boolean batchDirty;
 
     public PermissibleBase(@Nullable ServerOperator opable) {
         this.opable = opable;
@@ -53,7 +73,7 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        return permissions.containsKey(name.toLowerCase(Locale.ROOT));
+        return indexOf(resolved, name) != -1;
     }
 
     @Override
@@ -71,12 +91,13 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission name cannot be null");
         }
 
-        String name = inName.toLowerCase(Locale.ROOT);
+        ResolvedPermissions resolved = this.resolved;
+        int index = indexOf(resolved, inName);
 
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        if (index != -1) {
+            return resolved.getValue(index);
         } else {
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
+            Permission perm = Bukkit.getServer().getPluginManager().getPermission(inName);
 
             if (perm != null) {
                 return perm.getDefault().getValue(isOp());
@@ -92,10 +113,11 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Permission cannot be null");
         }
 
-        String name = perm.getName().toLowerCase(Locale.ROOT);
+        ResolvedPermissions resolved = this.resolved;
+        int index = indexOf(resolved, perm.getName());
 
-        if (isPermissionSet(name)) {
-            return permissions.get(name).getValue();
+        if (index != -1) {
+            return resolved.getValue(index);
         }
         return perm.getDefault().getValue(isOp());
     }
@@ -111,10 +133,14 @@ public class PermissibleBase implements Permissible {
             throw new IllegalArgumentException("Plugin " + plugin.getDescription().getFullName() + " is disabled");
         }
 
-        PermissionAttachment result = addAttachment(plugin);
-        result.setPermission(name, value);
-
-        recalculatePermissions();
+        PermissionAttachment result;
+        batchDepth++;
+        try {
+            result = addAttachment(plugin);
+            result.setPermission(name, value);
+        } finally {
+            endBatch();
+        }
 
         return result;
     }
@@ -129,9 +155,10 @@ public class PermissibleBase implements Permissible {
         }
 
         PermissionAttachment result = new PermissionAttachment(plugin, parent);
+        result.setOwner(this);
 
         attachments.add(result);
-        recalculatePermissions();
+        recalculate();
 
         return result;
     }
@@ -143,13 +170,14 @@ public class PermissibleBase implements Permissible {
         }
 
         if (attachments.remove(attachment)) {
+            attachmentLayers.remove(attachment);
             PermissionRemovedExecutor ex = attachment.getRemovalCallback();
 
             if (ex != null) {
                 ex.attachmentRemoved(attachment);
             }
 
-            recalculatePermissions();
+            recalculate();
         } else {
             throw new IllegalArgumentException("Given attachment is not part of Permissible object " + parent);
         }
@@ -157,48 +185,246 @@ public class PermissibleBase implements Permissible {
 
     @Override
     public void recalculatePermissions() {
-        clearPermissions();
-        Set<Permission> defaults = Bukkit.getServer().getPluginManager().getDefaultPermissions(isOp());
-        Bukkit.getServer().getPluginManager().subscribeToDefaultPerms(isOp(), parent);
+        if (announcedRecalculations > 0) {
+            // Requested by one of our attachments, whose change is tracked by its modification count
+            announcedRecalculations--;
+        } else {
+            // Requested from outside, e.g. after an op change, so our own attachment layers are rebuilt.
+            // Edited permissions are picked up through the registry version instead
+            invalidated = true;
+        }
+        recalculate();
+    }
+
+    /**
+     * 由此对象持有的附件在改动之后, 请求重新计算权限之前调用.
+     */
+    void attachmentChanged() {
+        announcedRecalculations++;
+    }
+
+    private void recalculate() {
+        if (batchDepth > 0) {
+            batchDirty = true;
+            return;
+        }
+        announcedRecalculations = 0;
+
+        PluginManager pluginManager = Bukkit.getServer().getPluginManager();
+        boolean op = isOp();
+        long version = getPermissionVersion(pluginManager);
+
+        // Without a registry version, changes to the registered permissions cannot be detected.
+        // Shared expansions are only replaced once the version changes, never by a single permissible
+        if (invalidated || version == UNKNOWN_VERSION) {
+            invalidated = false;
+            attachmentLayers.clear();
+        }
+
+        ResolvedPermissions previous = resolved;
+        ResolvedPermissions.Builder builder = new ResolvedPermissions.Builder(previous.size());
+        getDefaultLayer(pluginManager, op, version).putAll(builder, ResolvedPermissions.DEFAULT_SOURCE);
+
+        PermissionAttachment[] calculatedAttachments = attachments.toArray(new PermissionAttachment[attachments.size()]);
+        for (int i = 0; i < calculatedAttachments.length; i++) {
+            PermissionAttachment attachment = calculatedAttachments[i];
+            AttachmentLayer layer = attachmentLayers.get(attachment);
+            if (layer == null || layer.version != version) {
+                // Registered permissions changed, so every node may expand differently
+                layer = expand(attachment, null, version);
+                attachmentLayers.put(attachment, layer);
+            } else if (layer.modCount != attachment.getModificationCount()) {
+                layer = expand(attachment, layer, version);
+                attachmentLayers.put(attachment, layer);
+            }
+            for (Expansion node : layer.nodes.values()) {
+                node.putAll(builder, i);
+            }
+        }
+
+        // Permissibles with the same grants end up sharing the same snapshot
+        ResolvedPermissions calculated = builder.build();
+
+        // Only touch the subscriptions that actually changed
+        for (int i = 0; i < previous.size(); i++) {
+            if (!calculated.contains(previous.getName(i))) {
+                pluginManager.unsubscribeFromPermission(previous.getName(i), parent);
+            }
+        }
+        for (int i = 0; i < calculated.size(); i++) {
+            if (!previous.contains(calculated.getName(i))) {
+                pluginManager.subscribeToPermission(calculated.getName(i), parent);
+            }
+        }
+        pluginManager.unsubscribeFromDefaultPerms(!op, parent);
+        pluginManager.subscribeToDefaultPerms(op, parent);
+
+        // Readers only ever see a complete snapshot, never one being calculated
+        resolvedAttachments = calculatedAttachments;
+        resolved = calculated;
+    }
 
-        for (Permission perm : defaults) {
-            String name = perm.getName().toLowerCase(Locale.ROOT);
-            permissions.put(name, new PermissionAttachmentInfo(parent, name, null, true));
-            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
-            calculateChildPermissions(perm.getChildren(), false, null);
+    /**
+     * 在一次权限重新计算中应用多个改动.
+     * <p>
+     * 在给定任务运行期间, 对此对象重新计算权限的请求都会被推迟, 并在任务结束后合并为一次重新计算.
+     * 可以嵌套调用, 只有最外层的调用结束时才会重新计算.
+     * <p>
+     * 原文：
+     * Applies several changes with a single permission recalculation.
+     * <p>
+     * While the given task runs, requests to recalculate the permissions of
+     * this object are deferred and merged into one recalculation once the
+     * task finishes. Calls may be nested, permissions are only recalculated
+     * when the outermost call finishes.
+     *
+     * @param changes 要应用的改动, 例如对多个附件设置权限
+     */
+    public void batch(@NotNull Runnable changes) {
+        if (changes == null) {
+            throw new IllegalArgumentException("Changes cannot be null");
         }
 
-        for (PermissionAttachment attachment : attachments) {
-            calculateChildPermissions(attachment.getPermissions(), false, attachment);
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            endBatch();
+        }
+    }
+
+    private void endBatch() {
+        if (--batchDepth == 0 && batchDirty) {
+            batchDirty = false;
+            recalculate();
+        }
+    }
+
+    private static long getPermissionVersion(@NotNull PluginManager pluginManager) {
+        if (pluginManager instanceof SimplePluginManager) {
+            return ((SimplePluginManager) pluginManager).getPermissionVersion();
         }
+        return UNKNOWN_VERSION;
     }
 
     public synchronized void clearPermissions() {
-        Set<String> perms = permissions.keySet();
+        ResolvedPermissions perms = resolved;
 
-        for (String name : perms) {
-            Bukkit.getServer().getPluginManager().unsubscribeFromPermission(name, parent);
+        for (int i = 0; i < perms.size(); i++) {
+            Bukkit.getServer().getPluginManager().unsubscribeFromPermission(perms.getName(i), parent);
         }
 
         Bukkit.getServer().getPluginManager().unsubscribeFromDefaultPerms(false, parent);
         Bukkit.getServer().getPluginManager().unsubscribeFromDefaultPerms(true, parent);
 
-        permissions.clear();
+        resolved = ResolvedPermissions.EMPTY;
     }
 
-    private void calculateChildPermissions(@NotNull Map<String, Boolean> children, boolean invert, @Nullable PermissionAttachment attachment) {
-        for (Map.Entry<String, Boolean> entry : children.entrySet()) {
-            String name = entry.getKey();
+    /**
+     * 设置是否原生解析通配符权限.
+     * <p>
+     * 开启后, 设置为形如 {@code a.b.*} 的权限在没有单独设置的情况下也会作用于所有以 {@code a.b.}
+     * 开头的权限, {@code *} 会作用于所有权限; 多个通配符同时匹配时以最具体的为准.
+     * 这样插件无需再把通配符展开为庞大的子权限表. 默认关闭, 此时通配符权限与普通权限没有区别.
+     * <p>
+     * 原文：
+     * Sets whether wildcard permissions are resolved natively.
+     * <p>
+     * When enabled, a permission like {@code a.b.*} also applies to every
+     * permission starting with {@code a.b.} that is not set on its own, and
+     * {@code *} applies to every permission. The most specific wildcard wins
+     * when several match. Plugins then no longer need to expand wildcards
+     * into huge child maps. Disabled by default, in which case wildcard
+     * permissions are no different from any other permission.
+     *
+     * @param enabled 是否解析通配符权限
+     */
+    public static void setWildcardResolution(boolean enabled) {
+        wildcardResolution = enabled;
+    }
 
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
-            boolean value = entry.getValue() ^ invert;
-            String lname = name.toLowerCase(Locale.ROOT);
+    /**
+     * 检测是否原生解析通配符权限.
+     * <p>
+     * 原文：
+     * Checks whether wildcard permissions are resolved natively.
+     *
+     * @return 如果解析通配符权限则返回 true
+     * @see #setWildcardResolution(boolean)
+     */
+    public static boolean isWildcardResolution() {
+        return wildcardResolution;
+    }
 
-            permissions.put(lname, new PermissionAttachmentInfo(parent, lname, attachment, value));
-            Bukkit.getServer().getPluginManager().subscribeToPermission(name, parent);
+    private static int indexOf(@NotNull ResolvedPermissions resolved, @NotNull String name) {
+        int index = resolved.indexOf(name);
+        if (index == -1 && wildcardResolution) {
+            index = resolved.indexOfWildcard(name);
+        }
+        return index;
+    }
 
-            if (perm != null) {
-                calculateChildPermissions(perm.getChildren(), !value, attachment);
+    @NotNull
+    private static Expansion getDefaultLayer(@NotNull PluginManager pluginManager, boolean op, long version) {
+        DefaultLayer shared = op ? opDefaultLayer : defaultLayer;
+        if (shared != null && shared.version == version) {
+            return shared.expansion;
+        }
+
+        Expansion expansion = new Expansion();
+        for (Permission perm : pluginManager.getDefaultPermissions(op)) {
+            expand(perm.getName(), true, expansion);
+        }
+        if (version != UNKNOWN_VERSION) {
+            if (op) {
+                opDefaultLayer = new DefaultLayer(version, expansion);
+            } else {
+                defaultLayer = new DefaultLayer(version, expansion);
+            }
+        }
+        return expansion;
+    }
+
+    @NotNull
+    private static AttachmentLayer expand(@NotNull PermissionAttachment attachment, @Nullable AttachmentLayer previous, long version) {
+        Map<String, Expansion> layer = new LinkedHashMap<String, Expansion>();
+        for (Map.Entry<String, Boolean> entry : attachment.getPermissions().entrySet()) {
+            Expansion node = (previous == null) ? null : previous.nodes.get(entry.getKey());
+
+            // Only nodes that were added or changed are expanded again
+            if (node == null || node.values[0] != entry.getValue()) {
+                node = getNode(entry.getKey(), entry.getValue(), version);
+            }
+            layer.put(entry.getKey(), node);
+        }
+        return new AttachmentLayer(attachment.getModificationCount(), version, layer);
+    }
+
+    @NotNull
+    private static Expansion getNode(@NotNull String name, boolean value, long version) {
+        if (version == UNKNOWN_VERSION) {
+            Expansion node = new Expansion();
+            expand(name, value, node);
+            return node;
+        }
+
+        NodeKey key = new NodeKey(name, value, version);
+        Expansion node = SHARED_NODES.getIfPresent(key);
+        if (node == null) {
+            node = new Expansion();
+            expand(name, value, node);
+            SHARED_NODES.put(key, node);
+        }
+        return node;
+    }
+
+    private static void expand(@NotNull String name, boolean value, @NotNull Expansion result) {
+        result.add(name.toLowerCase(Locale.ROOT), value);
+
+        Permission perm = Bukkit.getServer().getPluginManager().getPermission(name);
+        if (perm != null) {
+            for (Map.Entry<String, Boolean> entry : perm.getChildren().entrySet()) {
+                expand(entry.getKey(), entry.getValue() ^ !value, result);
             }
         }
     }
@@ -246,7 +472,89 @@ public class PermissibleBase implements Permissible {
     @Override
     @NotNull
     public Set<PermissionAttachmentInfo> getEffectivePermissions() {
-        return new HashSet<PermissionAttachmentInfo>(permissions.values());
+        ResolvedPermissions resolved = this.resolved;
+        PermissionAttachment[] attachments = resolvedAttachments;
+
+        Set<PermissionAttachmentInfo> result = new HashSet<PermissionAttachmentInfo>(resolved.size() * 2);
+        for (int i = 0; i < resolved.size(); i++) {
+            int source = resolved.getSource(i);
+            PermissionAttachment attachment = (source >= 0 && source < attachments.length) ? attachments[source] : null;
+            result.add(new PermissionAttachmentInfo(parent, resolved.getName(i), attachment, resolved.getValue(i)));
+        }
+        return result;
+    }
+
+    private static final class AttachmentLayer {
+        private final int modCount;
+        private final long version;
+        private final Map<String, Expansion> nodes;
+
+        private AttachmentLayer(int modCount, long version, @NotNull Map<String, Expansion> nodes) {
+            this.modCount = modCount;
+            this.version = version;
+            this.nodes = nodes;
+        }
+    }
+
+    private static final class DefaultLayer {
+        private final long version;
+        private final Expansion expansion;
+
+        private DefaultLayer(long version, @NotNull Expansion expansion) {
+            this.version = version;
+            this.expansion = expansion;
+        }
+    }
+
+    private static final class NodeKey {
+        private final String name;
+        private final boolean value;
+        private final long version;
+
+        private NodeKey(@NotNull String name, boolean value, long version) {
+            this.name = name;
+            this.value = value;
+            this.version = version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, value, version);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof NodeKey)) {
+                return false;
+            }
+            NodeKey other = (NodeKey) obj;
+            return value == other.value && version == other.version && name.equals(other.name);
+        }
+    }
+
+    private static final class Expansion {
+        private String[] names = new String[4];
+        private boolean[] values = new boolean[4];
+        private int size;
+
+        private void add(@NotNull String name, boolean value) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            names[size] = name;
+            values[size] = value;
+            size++;
+        }
+
+        private void putAll(@NotNull ResolvedPermissions.Builder builder, int source) {
+            for (int i = 0; i < size; i++) {
+                builder.put(names[i], values[i], source);
+            }
+        }
     }
 
     private static class RemoveAttachmentRunnable implements Runnable {
@@ -15,6 +15,8 @@ public class PermissionAttachment {
     private final Map<String, Boolean> permissions = new LinkedHashMap<String, Boolean>();
     private final Permissible permissible;
     private final Plugin plugin;
+    private int modCount;
+    private PermissibleBase owner;
 
     public PermissionAttachment(@NotNull Plugin plugin, @NotNull Permissible permissible) {
         if (plugin == null) {
@@ -110,7 +112,23 @@ public class PermissionAttachment {
      */
     public void setPermission(@NotNull String name, boolean value) {
         permissions.put(name.toLowerCase(Locale.ROOT), value);
-        permissible.recalculatePermissions();
+        changed();
+    }
+
+    /**
+     * 通过完全限定名称一次设置多个权限, 并只重新计算一次权限.
+     * <p>
+     * 原文：
+     * Sets several permissions to the given values, by their fully qualified
+     * names, recalculating permissions only once.
+     *
+     * @param values 权限名称与对应的新值
+     */
+    public void setPermissions(@NotNull Map<String, Boolean> values) {
+        for (Map.Entry<String, Boolean> entry : values.entrySet()) {
+            permissions.put(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue());
+        }
+        changed();
     }
 
     /**
@@ -141,7 +159,7 @@ public class PermissionAttachment {
      */
     public void unsetPermission(@NotNull String name) {
         permissions.remove(name.toLowerCase(Locale.ROOT));
-        permissible.recalculatePermissions();
+        changed();
     }
 
     /**
@@ -161,6 +179,32 @@ public class PermissionAttachment {
         unsetPermission(perm.getName());
     }
 
+    /**
+     * 设置持有此附件的 {@link PermissibleBase}. 附件改动后会先告知它, 再请求重新计算权限.
+     *
+     * @param owner 持有此附件的对象
+     */
+    void setOwner(@NotNull PermissibleBase owner) {
+        this.owner = owner;
+    }
+
+    private void changed() {
+        modCount++;
+        if (owner != null) {
+            owner.attachmentChanged();
+        }
+        permissible.recalculatePermissions();
+    }
+
+    /**
+     * 获取此附件中的权限被修改的次数, 用于判断此附件的权限是否需要重新展开.
+     *
+     * @return 修改次数
+     */
+    int getModificationCount() {
+        return modCount;
+    }
+
     /**
      * 从此附件注册的{@link Permissible}中移除此附件.
      * <p>
@@ -0,0 +1,143 @@
+package org.bukkit.permissions;
+
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 由通配符权限编译而成的前缀树.
+ * <p>
+ * 形如 {@code a.b.*} 的权限会匹配所有以 {@code a.b.} 开头的权限, {@code *} 会匹配所有权限,
+ * 多个通配符同时匹配时以最长(最具体)的为准. 查询按 {@code .} 分隔的层级逐层向下,
+ * 耗时只与权限名的层数有关. 与 {@link ResolvedPermissions} 一样, 只包含 ASCII 字符的权限名
+ * 在查询时不会分配任何对象.
+ */
+final class PermissionTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+
+    /**
+     * 由权限名编译前缀树, 只有通配符权限会被加入.
+     *
+     * @param names 小写的权限名, 通配符匹配时返回其下标
+     * @return 前缀树, 若其中没有通配符权限则为 null
+     */
+    static PermissionTrie compile(@NotNull String[] names) {
+        PermissionTrie trie = null;
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            if (!isWildcard(name)) {
+                continue;
+            }
+            if (trie == null) {
+                trie = new PermissionTrie();
+            }
+
+            Node node = trie.root;
+            int end = name.length() - 1; // Strip the trailing '*'
+            int start = 0;
+            while (start < end) {
+                int dot = name.indexOf('.', start);
+                node = node.getOrCreate(name.substring(start, dot));
+                start = dot + 1;
+            }
+            node.wildcard = i;
+        }
+        return trie;
+    }
+
+    /**
+     * 检测权限名是否为通配符权限.
+     *
+     * @param name 小写的权限名
+     * @return 如果是 {@code *} 或以 {@code .*} 结尾则返回 true
+     */
+    static boolean isWildcard(@NotNull String name) {
+        return name.equals("*") || name.endsWith(".*");
+    }
+
+    /**
+     * 查找匹配给定权限名的最具体的通配符权限.
+     *
+     * @param name 权限名, 只包含 ASCII 字符时大小写不敏感, 否则必须已转换为小写
+     * @return 通配符权限的下标, 没有匹配时为 -1
+     */
+    int find(@NotNull String name) {
+        int length = name.length();
+        if (length == 0) {
+            return -1;
+        }
+
+        int found = -1;
+        Node node = root;
+        int start = 0;
+        while (true) {
+            // The name still has segments left here, so this node's wildcard applies
+            if (node.wildcard != -1) {
+                found = node.wildcard;
+            }
+
+            int dot = name.indexOf('.', start);
+            int end = (dot == -1) ? length : dot;
+            node = node.get(name, start, end);
+            if (node == null || dot == -1) {
+                return found;
+            }
+            start = dot + 1;
+        }
+    }
+
+    private static int hash(@NotNull String name, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + toLowerAscii(name.charAt(i));
+        }
+        return hash;
+    }
+
+    private static char toLowerAscii(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static final class Node {
+        private String[] segments = new String[0];
+        private int[] hashes = new int[0];
+        private Node[] children = NO_CHILDREN;
+        private int wildcard = -1;
+
+        private Node get(@NotNull String name, int start, int end) {
+            int hash = hash(name, start, end);
+            int length = end - start;
+            for (int i = 0; i < children.length; i++) {
+                if (hashes[i] == hash && segments[i].length() == length && matches(segments[i], name, start)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        @NotNull
+        private Node getOrCreate(@NotNull String segment) {
+            Node child = get(segment, 0, segment.length());
+            if (child == null) {
+                int size = children.length;
+                segments = Arrays.copyOf(segments, size + 1);
+                hashes = Arrays.copyOf(hashes, size + 1);
+                children = Arrays.copyOf(children, size + 1);
+                segments[size] = segment;
+                hashes[size] = hash(segment, 0, segment.length());
+                children[size] = child = new Node();
+            }
+            return child;
+        }
+
+        private static boolean matches(@NotNull String segment, @NotNull String name, int start) {
+            for (int i = 0; i < segment.length(); i++) {
+                if (segment.charAt(i) != toLowerAscii(name.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
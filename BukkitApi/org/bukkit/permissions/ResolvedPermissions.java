@@ -0,0 +1,281 @@
+package org.bukkit.permissions;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link PermissibleBase} 计算完成后的不可变权限快照.
+ * <p>
+ * 权限名以小写形式保存在开放寻址的哈希表中. 查询时按 ASCII 规则忽略大小写地计算哈希并逐字符比较,
+ * 因此对于只包含 ASCII 字符的权限名, 查询不会分配任何对象; 其他权限名会先转换为小写再查询.
+ * 快照中的通配符权限另外被编译为 {@link PermissionTrie}, 供开启通配符解析时使用.
+ * 快照创建后不再改变, 可以在任意线程中无锁读取.
+ * <p>
+ * 快照只记录每个权限来自第几个附件, 而不引用具体的 {@link Permissible} 或附件, 并且在创建时被驻留.
+ * 因此管理员状态与附件内容都相同的对象会共享同一个快照(以及其中的前缀树);
+ * 某个对象的权限单独发生变化时, 它会得到一个新的快照, 其他对象不受影响.
+ */
+final class ResolvedPermissions {
+    /**
+     * 来自默认权限而非附件的权限的来源.
+     */
+    static final int DEFAULT_SOURCE = -1;
+    static final ResolvedPermissions EMPTY = new ResolvedPermissions(new String[0], new boolean[0], new int[0]);
+    private static final Interner<ResolvedPermissions> INTERNER = Interners.newWeakInterner();
+
+    private final String[] names;
+    private final int[] hashes;
+    private final boolean[] values;
+    private final int[] sources;
+    private final int[] table; // dense index + 1, 0 for empty slots
+    private final PermissionTrie wildcards;
+    private final int hash;
+
+    private ResolvedPermissions(@NotNull String[] names, @NotNull boolean[] values, @NotNull int[] sources) {
+        this.names = names;
+        this.values = values;
+        this.sources = sources;
+        this.hashes = new int[names.length];
+        this.table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, names.length * 2 - 1)) << 1)];
+
+        int mask = table.length - 1;
+        for (int i = 0; i < names.length; i++) {
+            int hash = names[i].hashCode();
+            hashes[i] = hash;
+
+            int slot = spread(hash) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+
+        int hash = 0;
+        for (int i = 0; i < names.length; i++) {
+            // Order independent, as equal snapshots may list their permissions in any order
+            hash += (hashes[i] * 31 + sources[i]) * 31 + (values[i] ? 1231 : 1237);
+        }
+        this.hash = hash;
+
+        this.wildcards = PermissionTrie.compile(names);
+    }
+
+    /**
+     * 忽略大小写地查找权限.
+     *
+     * @param name 权限名
+     * @return 权限的下标, 未设置时为 -1
+     */
+    int indexOf(@NotNull String name) {
+        int length = name.length();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                return indexOfLowerCase(name.toLowerCase(Locale.ROOT));
+            }
+            hash = 31 * hash + toLowerAscii(c);
+        }
+
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (hashes[index] == hash && equalsLowerAscii(names[index], name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 忽略大小写地查找匹配给定权限名的最具体的通配符权限.
+     *
+     * @param name 权限名
+     * @return 通配符权限的下标, 没有匹配时为 -1
+     */
+    int indexOfWildcard(@NotNull String name) {
+        if (wildcards == null) {
+            return -1;
+        }
+
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) {
+                return wildcards.find(name.toLowerCase(Locale.ROOT));
+            }
+        }
+        return wildcards.find(name);
+    }
+
+    /**
+     * 获取指定下标的权限值.
+     *
+     * @param index 由 {@link #indexOf(String)} 或 {@link #indexOfWildcard(String)} 返回的下标
+     * @return 权限值
+     */
+    boolean getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * 获取指定下标的小写权限名.
+     *
+     * @param index 下标, 范围为 [0, {@link #size()})
+     * @return 权限名
+     */
+    @NotNull
+    String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * 获取指定下标的权限来自第几个附件.
+     *
+     * @param index 下标, 范围为 [0, {@link #size()})
+     * @return 附件的序号, 来自默认权限时为 {@link #DEFAULT_SOURCE}
+     */
+    int getSource(int index) {
+        return sources[index];
+    }
+
+    /**
+     * 检测快照中是否设置了给定的权限.
+     *
+     * @param name 小写的权限名
+     * @return 如果设置了则返回 true
+     */
+    boolean contains(@NotNull String name) {
+        return indexOfLowerCase(name) != -1;
+    }
+
+    /**
+     * 获取快照中权限的数量.
+     *
+     * @return 权限数量
+     */
+    int size() {
+        return names.length;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ResolvedPermissions)) {
+            return false;
+        }
+
+        ResolvedPermissions other = (ResolvedPermissions) obj;
+        if (hash != other.hash || names.length != other.names.length) {
+            return false;
+        }
+        for (int i = 0; i < names.length; i++) {
+            int index = other.indexOfLowerCase(names[i]);
+            if (index == -1 || values[i] != other.values[index] || sources[i] != other.sources[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOfLowerCase(@NotNull String name) {
+        int hash = name.hashCode();
+        int mask = table.length - 1;
+        for (int slot = spread(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int index = table[slot] - 1;
+            if (hashes[index] == hash && names[index].equals(name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean equalsLowerAscii(@NotNull String lowerCase, @NotNull String ascii) {
+        int length = ascii.length();
+        if (lowerCase.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (lowerCase.charAt(i) != toLowerAscii(ascii.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 逐个收集权限以创建快照. 同一权限被多次放入时, 以最后一次为准.
+     */
+    static final class Builder {
+        private final Map<String, Integer> indexes;
+        private String[] names;
+        private boolean[] values;
+        private int[] sources;
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            this.indexes = new HashMap<String, Integer>(capacity * 2);
+            this.names = new String[capacity];
+            this.values = new boolean[capacity];
+            this.sources = new int[capacity];
+        }
+
+        /**
+         * 放入一个权限.
+         *
+         * @param name 小写的权限名
+         * @param value 权限值
+         * @param source 权限来自第几个附件, 或 {@link #DEFAULT_SOURCE}
+         */
+        void put(@NotNull String name, boolean value, int source) {
+            Integer existing = indexes.get(name);
+            int index;
+            if (existing != null) {
+                index = existing;
+            } else {
+                index = indexes.size();
+                if (index == names.length) {
+                    names = Arrays.copyOf(names, index * 2);
+                    values = Arrays.copyOf(values, index * 2);
+                    sources = Arrays.copyOf(sources, index * 2);
+                }
+                indexes.put(name, index);
+                names[index] = name;
+            }
+            values[index] = value;
+            sources[index] = source;
+        }
+
+        /**
+         * 创建快照, 若已有内容相同的快照则返回已有的快照.
+         *
+         * @return 快照
+         */
+        @NotNull
+        ResolvedPermissions build() {
+            int size = indexes.size();
+            if (size == 0) {
+                return EMPTY;
+            }
+            return INTERNER.intern(new ResolvedPermissions(Arrays.copyOf(names, size), Arrays.copyOf(values, size), Arrays.copyOf(sources, size)));
+        }
+    }
+}
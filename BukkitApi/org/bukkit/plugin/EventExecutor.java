@@ -1,5 +1,6 @@
 package org.bukkit.plugin;
 
+import java.lang.reflect.Method;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventException;
 import org.bukkit.event.Listener;
@@ -10,4 +11,28 @@ import org.jetbrains.annotations.NotNull;
  */
 public interface EventExecutor {
     public void execute(@NotNull Listener listener, @NotNull Event event) throws EventException;
+
+    /**
+     * 为给定的事件处理方法创建一个事件执行器.
+     * <p>
+     * 会优先为该方法生成一个直接调用它的隐藏类, 以避免每次调用事件时的反射开销;
+     * 若当前环境无法生成, 则退回到基于 {@link Method#invoke(Object, Object...)} 的实现.
+     * 返回的执行器会忽略不属于给定事件类的事件.
+     * <p>
+     * 原文：Creates an event executor for the given event handler method.
+     * <p>
+     * A hidden class directly invoking the method is generated when possible,
+     * avoiding reflection overhead on every call. If that is not possible in
+     * the current environment, an implementation based on
+     * {@link Method#invoke(Object, Object...)} is used instead. The returned
+     * executor ignores events that are not of the given event class.
+     *
+     * @param method 事件处理方法, 必须只接受一个事件参数
+     * @param eventClass 该方法处理的事件类
+     * @return 调用该方法的事件执行器
+     */
+    @NotNull
+    public static EventExecutor create(@NotNull Method method, @NotNull Class<? extends Event> eventClass) {
+        return EventExecutorFactory.create(method, eventClass);
+    }
 }
\ No newline at end of file
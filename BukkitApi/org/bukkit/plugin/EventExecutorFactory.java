@@ -0,0 +1,71 @@
+package org.bukkit.plugin;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 为事件处理方法创建 {@link EventExecutor}.
+ */
+final class EventExecutorFactory {
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Listener.class, Event.class);
+    private static final byte[] TEMPLATE = readTemplate();
+
+    private EventExecutorFactory() {}
+
+    @NotNull
+    static EventExecutor create(@NotNull Method method, @NotNull Class<? extends Event> eventClass) {
+        Preconditions.checkArgument(method != null, "Method cannot be null");
+        Preconditions.checkArgument(eventClass != null, "Event class cannot be null");
+        Preconditions.checkArgument(method.getParameterCount() == 1 && method.getParameterTypes()[0].isAssignableFrom(eventClass), "Method %s cannot handle %s", method, eventClass);
+
+        method.setAccessible(true);
+        if (TEMPLATE != null) {
+            try {
+                return generate(method, eventClass);
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+                // Fall through to the reflective executor
+            }
+        }
+        return new ReflectiveEventExecutor(method, eventClass);
+    }
+
+    @NotNull
+    private static EventExecutor generate(@NotNull Method method, @NotNull Class<? extends Event> eventClass) throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Listener.class);
+        }
+        handle = handle.asType(HANDLER_TYPE);
+
+        MethodHandles.Lookup hidden = lookup.defineHiddenClassWithClassData(TEMPLATE, Arrays.asList(eventClass, handle), true);
+        try {
+            return (EventExecutor) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (ReflectiveOperationException | RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable t) {
+            throw new ReflectiveOperationException(t);
+        }
+    }
+
+    @Nullable
+    private static byte[] readTemplate() {
+        // Read by name so the template class itself is never loaded
+        try (InputStream in = EventExecutorFactory.class.getResourceAsStream("HiddenClassEventExecutor.class")) {
+            return (in != null) ? in.readAllBytes() : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.bukkit.plugin;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 直接调用事件处理方法的事件执行器模板.
+ * <p>
+ * 本类从不被直接加载, 而是由 {@link EventExecutorFactory} 以其字节码为模板,
+ * 为每个事件处理方法定义一个隐藏类. 事件类与方法句柄作为类数据存入静态常量,
+ * 使得 JIT 可以将处理方法内联到调用处.
+ */
+final class HiddenClassEventExecutor implements EventExecutor {
+    private static final Class<?> EVENT_CLASS;
+    private static final MethodHandle HANDLER; // (Listener, Event)void
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            EVENT_CLASS = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, Class.class, 0);
+            HANDLER = MethodHandles.classDataAt(lookup, ConstantDescs.DEFAULT_NAME, MethodHandle.class, 1);
+        } catch (IllegalAccessException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    @Override
+    public void execute(@NotNull Listener listener, @NotNull Event event) throws EventException {
+        if (!EVENT_CLASS.isInstance(event)) {
+            return;
+        }
+        try {
+            HANDLER.invokeExact(listener, event);
+        } catch (Throwable t) {
+            throw new EventException(t);
+        }
+    }
+}
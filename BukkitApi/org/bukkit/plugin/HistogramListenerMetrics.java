@@ -0,0 +1,43 @@
+package org.bukkit.plugin;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.MapMaker;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link ListenerMetrics} 的默认实现, 为每个监听器维护一个 {@link LatencyHistogram}.
+ * <p>
+ * 监听器以弱引用保存, 已注销的监听器被回收后其数据也会随之消失.
+ */
+public class HistogramListenerMetrics implements ListenerMetrics {
+    private final ConcurrentMap<RegisteredListener, LatencyHistogram> histograms = new MapMaker().weakKeys().makeMap();
+
+    @Override
+    public void record(@NotNull RegisteredListener listener, @NotNull Event event, long nanos) {
+        LatencyHistogram histogram = histograms.get(listener);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(listener, key -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    @NotNull
+    @Override
+    public Map<RegisteredListener, LatencyHistogram.Snapshot> snapshot() {
+        ImmutableMap.Builder<RegisteredListener, LatencyHistogram.Snapshot> builder = ImmutableMap.builder();
+        for (Map.Entry<RegisteredListener, LatencyHistogram> entry : histograms.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.bukkit.plugin;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 无锁的对数线性延迟直方图, 以纳秒为单位记录耗时.
+ * <p>
+ * 与 HdrHistogram 类似, 每个 2 的幂区间被等分为 16 个桶, 因此报告的百分位数的相对误差不超过 1/16.
+ * 超过约 68 秒的值会被计入最后一个桶. 记录操作可以从任意线程并发调用.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final long MAX_TRACKABLE = (1L << 36) - 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    /**
+     * 记录一次耗时.
+     * <p>
+     * 原文：Records a single duration.
+     *
+     * @param nanos 耗时(纳秒), 负数视为 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE)));
+        totalTime.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * 清空所有已记录的数据.
+     * <p>
+     * 与并发的记录操作同时进行时, 部分记录可能会在重置后依然存在.
+     * <p>
+     * 原文：Clears all recorded data.
+     * <p>
+     * When racing with concurrent recordings, some of them may survive the
+     * reset.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        totalTime.reset();
+        max.reset();
+    }
+
+    /**
+     * 获取当前数据的快照.
+     * <p>
+     * 原文：Takes a snapshot of the current data.
+     *
+     * @return 快照
+     */
+    @NotNull
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, totalTime.sum(), max.get());
+    }
+
+    private static int indexOf(long value) {
+        if (value < (SUB_BUCKET_COUNT << 1)) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long highestValueAt(int index) {
+        if (index < (SUB_BUCKET_COUNT << 1)) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * {@link LatencyHistogram} 在某一时刻的不可变快照.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalTime;
+        private final long max;
+
+        private Snapshot(@NotNull long[] counts, long count, long totalTime, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.totalTime = totalTime;
+            this.max = max;
+        }
+
+        /**
+         * 获取已记录的次数.
+         * <p>
+         * 原文：Gets the number of recorded values.
+         *
+         * @return 记录次数
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 获取所有已记录耗时的总和.
+         * <p>
+         * 原文：Gets the sum of all recorded durations.
+         *
+         * @return 总耗时(纳秒)
+         */
+        public long getTotalTime() {
+            return totalTime;
+        }
+
+        /**
+         * 获取已记录的最大耗时.
+         * <p>
+         * 原文：Gets the largest recorded duration.
+         *
+         * @return 最大耗时(纳秒)
+         */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * 获取已记录耗时的平均值.
+         * <p>
+         * 原文：Gets the mean of the recorded durations.
+         *
+         * @return 平均耗时(纳秒), 若没有记录则为 0
+         */
+        public double getMean() {
+            return (count == 0) ? 0 : (double) totalTime / count;
+        }
+
+        /**
+         * 获取指定百分位上的耗时, 例如 50 为中位数, 99 为 p99.
+         * <p>
+         * 原文：Gets the duration at the given percentile, e.g. 50 for the
+         * median or 99 for p99.
+         *
+         * @param percentile 百分位, 范围为 [0, 100]
+         * @return 该百分位上的耗时(纳秒), 若没有记录则为 0
+         */
+        public long getValueAtPercentile(double percentile) {
+            Preconditions.checkArgument(percentile >= 0 && percentile <= 100, "Percentile must be between 0 and 100");
+            if (count == 0) {
+                return 0;
+            }
+
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestValueAt(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
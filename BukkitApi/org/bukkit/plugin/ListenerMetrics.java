@@ -0,0 +1,41 @@
+package org.bukkit.plugin;
+
+import java.util.Map;
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 收集事件监听器耗时的接口, 通过 {@link PluginManager#setListenerMetrics(ListenerMetrics, int)} 启用.
+ * <p>
+ * 同步事件与异步事件都会被记录, 因此实现必须是线程安全的.
+ */
+public interface ListenerMetrics {
+
+    /**
+     * 记录一次监听器调用的耗时.
+     * <p>
+     * 原文：Records the duration of a single listener call.
+     *
+     * @param listener 被调用的监听器
+     * @param event 被调用的事件
+     * @param nanos 调用耗时(纳秒)
+     */
+    public void record(@NotNull RegisteredListener listener, @NotNull Event event, long nanos);
+
+    /**
+     * 获取每个已记录监听器的耗时快照.
+     * <p>
+     * 原文：Gets a snapshot of the durations of every recorded listener.
+     *
+     * @return 监听器到其耗时快照的映射
+     */
+    @NotNull
+    public Map<RegisteredListener, LatencyHistogram.Snapshot> snapshot();
+
+    /**
+     * 清空所有已记录的数据.
+     * <p>
+     * 原文：Clears all recorded data.
+     */
+    public void reset();
+}
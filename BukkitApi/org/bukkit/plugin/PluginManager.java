@@ -1,7 +1,12 @@
 package org.bukkit.plugin;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
 import java.io.File;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
@@ -149,6 +154,77 @@ public interface PluginManager {
      */
     public void callEvent(@NotNull Event event) throws IllegalStateException;
 
+    /**
+     * 检测指定类型的事件当前是否有已启用的插件在监听.
+     * <p>
+     * 若返回 false, 调用者可以跳过构造并调用该事件. 由于监听器注册在事件类声明
+     * getHandlerList() 方法的类上, 即使只有该类的其他子类事件被监听, 本方法也可能返回 true.
+     * <p>
+     * 原文:Checks if events of the given type currently have listeners of any
+     * enabled plugin.
+     * <p>
+     * If this returns false, callers may skip constructing and calling the
+     * event altogether. As listeners are registered to the class declaring
+     * getHandlerList(), this may also return true if only other subclasses
+     * of that class are listened to.
+     * <p>
+     * 默认实现总是返回 true, 即调用者总是构造并调用该事件.
+     * <p>
+     * The default implementation always returns true, so callers always
+     * construct and call the event.
+     *
+     * @param event 要检测的事件类型
+     * @return 如果有监听器则返回 true
+     * @throws IllegalPluginAccessException 当找不到该事件类的静态 getHandlerList 方法时抛出
+     */
+    public default boolean isListenedTo(@NotNull Class<? extends Event> event) {
+        return true;
+    }
+
+    /**
+     * 以异步流水线的方式调用一个异步事件.
+     * <p>
+     * 监听器依然按优先级顺序逐个调用, 但每个监听器都在其所属插件专用的线程池中执行,
+     * 调用本方法的线程不会被阻塞. 若某个监听器的执行时间超过了给定的预算,
+     * 会记录一条警告, 且不再调用剩余的监听器. 超时的监听器将在后台继续执行,
+     * 并可能继续修改该事件, 因此超时后事件的状态是未定义的, 返回的 CompletableFuture
+     * 将以 {@link java.util.concurrent.TimeoutException} 异常完成.
+     * <p>
+     * 原文:Calls an asynchronous event through an asynchronous pipeline.
+     * <p>
+     * Listeners are still called one after another in priority order, but
+     * each of them runs on a thread pool dedicated to its plugin, so the
+     * calling thread is never blocked. If a listener takes longer than the
+     * given budget, a warning is logged and the remaining listeners are
+     * skipped. The slow listener keeps running in the background and may
+     * still change the event, so the state of the event is undefined after
+     * a timeout and the returned CompletableFuture completes exceptionally
+     * with a {@link java.util.concurrent.TimeoutException}.
+     * <p>
+     * 默认实现在公共线程池中通过 {@link #callEvent(Event)} 调用该事件, 不限制监听器的执行时间.
+     * <p>
+     * The default implementation calls the event through
+     * {@link #callEvent(Event)} on the common pool, without limiting the
+     * time taken by listeners.
+     *
+     * @param <T> 事件类型
+     * @param event 要调用的事件
+     * @param listenerTimeout 每个监听器的时间预算
+     * @param unit 时间预算的单位
+     * @return 所有监听器调用完毕后以该事件完成的 CompletableFuture
+     * @throws IllegalArgumentException 当事件不是异步事件时抛出
+     */
+    @NotNull
+    public default <T extends Event> CompletableFuture<T> callEventAsync(@NotNull T event, long listenerTimeout, @NotNull TimeUnit unit) {
+        Preconditions.checkArgument(event != null, "Event cannot be null");
+        Preconditions.checkArgument(event.isAsynchronous(), "%s is not an asynchronous event", event.getEventName());
+
+        return CompletableFuture.supplyAsync(() -> {
+            callEvent(event);
+            return event;
+        });
+    }
+
     /**
      * 注册在指定监听器类中的所有事件.
      * <p>
@@ -401,4 +477,60 @@ public interface PluginManager {
      * @return 若已启用Timings
      */
     public boolean useTimings();
+
+    /**
+     * 设置用于收集监听器耗时的 {@link ListenerMetrics}.
+     * <p>
+     * 启用后, 同步与异步事件的监听器调用都会按给定的采样间隔计时, 例如间隔为 10 时
+     * 平均每 10 次调用记录 1 次. 传入 null 则停止收集.
+     * <p>
+     * 原文:Sets the {@link ListenerMetrics} collecting listener durations.
+     * <p>
+     * Once set, listener calls of both synchronous and asynchronous events
+     * are timed at the given sampling interval, e.g. an interval of 10
+     * records one in ten calls on average. Passing null stops collecting.
+     * <p>
+     * 默认实现不支持收集监听器耗时, 只接受 null.
+     * <p>
+     * The default implementation does not support collecting listener
+     * durations and only accepts null.
+     *
+     * @param metrics 要使用的 ListenerMetrics, 或 null
+     * @param sampleInterval 采样间隔, 1 表示记录每次调用
+     * @throws IllegalArgumentException 当采样间隔小于 1 时抛出
+     * @throws UnsupportedOperationException 当实现不支持收集监听器耗时时抛出
+     */
+    public default void setListenerMetrics(@Nullable ListenerMetrics metrics, int sampleInterval) {
+        Preconditions.checkArgument(sampleInterval >= 1, "Sample interval must be at least 1");
+
+        if (metrics != null) {
+            throw new UnsupportedOperationException("Listener metrics are not supported by " + getClass().getName());
+        }
+    }
+
+    /**
+     * 获取当前用于收集监听器耗时的 {@link ListenerMetrics}.
+     * <p>
+     * 原文:Gets the {@link ListenerMetrics} currently collecting listener
+     * durations.
+     *
+     * @return 当前的 ListenerMetrics, 未启用时返回 null
+     */
+    @Nullable
+    public default ListenerMetrics getListenerMetrics() {
+        return null;
+    }
+
+    /**
+     * 获取每个监听器的耗时快照.
+     * <p>
+     * 原文:Gets a snapshot of the durations of every listener.
+     *
+     * @return 监听器到其耗时快照的映射, 未启用 ListenerMetrics 时为空
+     */
+    @NotNull
+    public default Map<RegisteredListener, LatencyHistogram.Snapshot> getListenerMetricsSnapshot() {
+        ListenerMetrics metrics = getListenerMetrics();
+        return (metrics != null) ? metrics.snapshot() : ImmutableMap.<RegisteredListener, LatencyHistogram.Snapshot>of();
+    }
 }
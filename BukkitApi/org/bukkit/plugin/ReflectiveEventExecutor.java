@@ -0,0 +1,35 @@
+package org.bukkit.plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 通过反射调用事件处理方法的事件执行器, 在无法生成直接调用的执行器时使用.
+ */
+final class ReflectiveEventExecutor implements EventExecutor {
+    private final Method method;
+    private final Class<? extends Event> eventClass;
+
+    ReflectiveEventExecutor(@NotNull Method method, @NotNull Class<? extends Event> eventClass) {
+        this.method = method;
+        this.eventClass = eventClass;
+    }
+
+    @Override
+    public void execute(@NotNull Listener listener, @NotNull Event event) throws EventException {
+        try {
+            if (!eventClass.isAssignableFrom(event.getClass())) {
+                return;
+            }
+            method.invoke(listener, event);
+        } catch (InvocationTargetException ex) {
+            throw new EventException(ex.getCause());
+        } catch (Throwable t) {
+            throw new EventException(t);
+        }
+    }
+}
@@ -64,6 +64,19 @@ public class RegisteredListener {
         return priority;
     }
 
+    /**
+     * 获取此注册的事件执行器.
+     * <p>
+     * 原文：
+     * Gets the event executor for this registration
+     *
+     * @return 已注册的事件执行器
+     */
+    @NotNull
+    public EventExecutor getExecutor() {
+        return executor;
+    }
+
     /**
      * 调用事件执行器.
      * <p>
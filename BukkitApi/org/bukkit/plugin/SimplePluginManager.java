@@ -1,10 +1,15 @@
 package org.bukkit.plugin;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.MapMaker;
 import com.google.common.graph.GraphBuilder;
 import com.google.common.graph.Graphs;
 import com.google.common.graph.MutableGraph;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
@@ -21,7 +26,18 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -30,7 +46,10 @@ import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.PluginCommandYamlParser;
 import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.DispatchChain;
 import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
@@ -48,15 +67,24 @@ public final class SimplePluginManager implements PluginManager {
     private final Server server;
     private final Map<Pattern, PluginLoader> fileAssociations = new HashMap<Pattern, PluginLoader>();
     private final List<Plugin> plugins = new ArrayList<Plugin>();
-    private final Map<String, Plugin> lookupNames = new HashMap<String, Plugin>();
+    // Read by loader threads while a wave of plugins is being registered
+    private final Map<String, Plugin> lookupNames = new ConcurrentHashMap<String, Plugin>();
     private MutableGraph<String> dependencyGraph = GraphBuilder.directed().build();
     private File updateDirectory;
     private final SimpleCommandMap commandMap;
     private final Map<String, Permission> permissions = new HashMap<String, Permission>();
     private final Map<Boolean, Set<Permission>> defaultPerms = new LinkedHashMap<Boolean, Set<Permission>>();
-    private final Map<String, Map<Permissible, Boolean>> permSubs = new HashMap<String, Map<Permissible, Boolean>>();
-    private final Map<Boolean, Map<Permissible, Boolean>> defSubs = new HashMap<Boolean, Map<Permissible, Boolean>>();
+    private final Map<String, Map<Permissible, Boolean>> permSubs = new ConcurrentHashMap<String, Map<Permissible, Boolean>>();
+    private final Map<Boolean, Map<Permissible, Boolean>> defSubs = new ConcurrentHashMap<Boolean, Map<Permissible, Boolean>>();
+    // Shared by every manager, so a version never identifies two different registries
+    private static final AtomicLong PERMISSION_VERSIONS = new AtomicLong();
+    private volatile long permissionVersion = PERMISSION_VERSIONS.incrementAndGet();
+    private ClassValue<HandlerList> handlerListCache = createHandlerListCache();
+    private final Map<Plugin, ExecutorService> asyncEventExecutors = new HashMap<Plugin, ExecutorService>(); // Guarded by itself
     private boolean useTimings = false;
+    private int pluginLoadThreads = 1;
+    private volatile boolean parallelPermissionRecalculation = false;
+    private volatile MetricsSettings metricsSettings = null;
 
     public SimplePluginManager(@NotNull Server instance, @NotNull SimpleCommandMap commandMap) {
         server = instance;
@@ -138,6 +166,25 @@ public final class SimplePluginManager implements PluginManager {
     public Plugin[] loadPlugins(@NotNull File[] files) {
         Preconditions.checkArgument(files != null, "File list cannot be null");
 
+        ExecutorService executor = null;
+        if (pluginLoadThreads > 1) {
+            executor = Executors.newFixedThreadPool(pluginLoadThreads, new ThreadFactoryBuilder()
+                    .setNameFormat("Plugin Loader Thread - %d")
+                    .setDaemon(true)
+                    .build());
+        }
+
+        try {
+            return loadPlugins(files, executor);
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @NotNull
+    private Plugin[] loadPlugins(@NotNull File[] files, @Nullable ExecutorService executor) {
         List<Plugin> result = new ArrayList<Plugin>();
         Set<Pattern> filters = fileAssociations.keySet();
 
@@ -147,21 +194,30 @@ public final class SimplePluginManager implements PluginManager {
         Map<String, Collection<String>> dependencies = new HashMap<String, Collection<String>>();
         Map<String, Collection<String>> softDependencies = new HashMap<String, Collection<String>>();
 
-        // This is where it figures out all possible plugins
-        for (File file : files) {
-            PluginLoader loader = null;
+        // Read all descriptions up front, possibly in parallel, but handle them in file order
+        Map<File, Future<PluginDescriptionFile>> descriptions = new LinkedHashMap<File, Future<PluginDescriptionFile>>();
+        for (final File file : files) {
+            PluginLoader matchedLoader = null;
             for (Pattern filter : filters) {
                 Matcher match = filter.matcher(file.getName());
                 if (match.find()) {
-                    loader = fileAssociations.get(filter);
+                    matchedLoader = fileAssociations.get(filter);
                 }
             }
 
-            if (loader == null) continue;
+            if (matchedLoader == null) continue;
+
+            final PluginLoader loader = matchedLoader;
+            descriptions.put(file, submit(executor, () -> loader.getPluginDescription(file)));
+        }
+
+        // This is where it figures out all possible plugins
+        for (Map.Entry<File, Future<PluginDescriptionFile>> descriptionEntry : descriptions.entrySet()) {
+            File file = descriptionEntry.getKey();
 
             PluginDescriptionFile description = null;
             try {
-                description = loader.getPluginDescription(file);
+                description = await(descriptionEntry.getValue());
                 String name = description.getName();
                 if (name.equalsIgnoreCase("bukkit") || name.equalsIgnoreCase("minecraft") || name.equalsIgnoreCase("mojang")) {
                     server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "': Restricted Name");
@@ -173,6 +229,9 @@ public final class SimplePluginManager implements PluginManager {
             } catch (InvalidDescriptionException ex) {
                 server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "'", ex);
                 continue;
+            } catch (Exception ex) {
+                Throwables.throwIfUnchecked(ex);
+                throw new AssertionError(ex);
             }
 
             File replacedFile = plugins.put(description.getName(), file);
@@ -256,6 +315,9 @@ public final class SimplePluginManager implements PluginManager {
             }
         }
 
+        // Plugins found ready in the same pass do not depend on each other and are loaded together
+        Map<String, File> wave = new LinkedHashMap<String, File>();
+
         while (!plugins.isEmpty()) {
             boolean missingDependency = true;
             Iterator<Map.Entry<String, File>> pluginIterator = plugins.entrySet().iterator();
@@ -275,7 +337,7 @@ public final class SimplePluginManager implements PluginManager {
                             dependencyIterator.remove();
 
                         // We have a dependency not found
-                        } else if (!plugins.containsKey(dependency) && !pluginsProvided.containsKey(dependency)) {
+                        } else if (!plugins.containsKey(dependency) && !pluginsProvided.containsKey(dependency) && !wave.containsKey(dependency)) {
                             missingDependency = false;
                             pluginIterator.remove();
                             softDependencies.remove(plugin);
@@ -300,7 +362,7 @@ public final class SimplePluginManager implements PluginManager {
                         String softDependency = softDependencyIterator.next();
 
                         // Soft depend is no longer around
-                        if (!plugins.containsKey(softDependency) && !pluginsProvided.containsKey(softDependency)) {
+                        if (!plugins.containsKey(softDependency) && !pluginsProvided.containsKey(softDependency) && !wave.containsKey(softDependency)) {
                             softDependencyIterator.remove();
                         }
                     }
@@ -314,23 +376,15 @@ public final class SimplePluginManager implements PluginManager {
                     File file = plugins.get(plugin);
                     pluginIterator.remove();
                     missingDependency = false;
-
-                    try {
-                        Plugin loadedPlugin = loadPlugin(file);
-                        if (loadedPlugin != null) {
-                            result.add(loadedPlugin);
-                            loadedPlugins.add(loadedPlugin.getName());
-                            loadedPlugins.addAll(loadedPlugin.getDescription().getProvides());
-                        } else {
-                            server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "'");
-                        }
-                        continue;
-                    } catch (InvalidPluginException ex) {
-                        server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "'", ex);
-                    }
+                    wave.put(plugin, file);
                 }
             }
 
+            if (!wave.isEmpty()) {
+                loadWave(wave.values(), executor, result, loadedPlugins);
+                wave.clear();
+            }
+
             if (missingDependency) {
                 // We now iterate over plugins until something loads
                 // This loop will ignore soft dependencies
@@ -380,6 +434,54 @@ public final class SimplePluginManager implements PluginManager {
         return result.toArray(new Plugin[result.size()]);
     }
 
+    // Constructs a wave of independent plugins, possibly in parallel, then registers them in order
+    private void loadWave(@NotNull Collection<File> wave, @Nullable ExecutorService executor, @NotNull List<Plugin> result, @NotNull Set<String> loadedPlugins) {
+        Map<File, Future<Plugin>> created = new LinkedHashMap<File, Future<Plugin>>();
+        for (final File file : wave) {
+            created.put(file, submit(executor, () -> createPlugin(file)));
+        }
+
+        // Register in scheduling order regardless of which plugin finished constructing first
+        for (Map.Entry<File, Future<Plugin>> entry : created.entrySet()) {
+            File file = entry.getKey();
+            try {
+                Plugin loadedPlugin = registerPlugin(await(entry.getValue()));
+                if (loadedPlugin != null) {
+                    result.add(loadedPlugin);
+                    loadedPlugins.add(loadedPlugin.getName());
+                    loadedPlugins.addAll(loadedPlugin.getDescription().getProvides());
+                } else {
+                    server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "'");
+                }
+            } catch (InvalidPluginException ex) {
+                server.getLogger().log(Level.SEVERE, "Could not load '" + file.getPath() + "'", ex);
+            } catch (Exception ex) {
+                Throwables.throwIfUnchecked(ex);
+                throw new AssertionError(ex);
+            }
+        }
+    }
+
+    @NotNull
+    private static <T> Future<T> submit(@Nullable ExecutorService executor, @NotNull Callable<T> task) {
+        if (executor != null) {
+            return executor.submit(task);
+        }
+        FutureTask<T> future = new FutureTask<T>(task);
+        future.run();
+        return future;
+    }
+
+    private static <T> T await(@NotNull Future<T> future) throws Exception {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException ex) {
+            Throwables.throwIfInstanceOf(ex.getCause(), Exception.class);
+            Throwables.throwIfUnchecked(ex.getCause());
+            throw ex;
+        }
+    }
+
     /**
      * 加载某个文件为插件.
      * <p>
@@ -397,6 +499,11 @@ public final class SimplePluginManager implements PluginManager {
     @Override
     @Nullable
     public synchronized Plugin loadPlugin(@NotNull File file) throws InvalidPluginException, UnknownDependencyException {
+        return registerPlugin(createPlugin(file));
+    }
+
+    @Nullable
+    private Plugin createPlugin(@NotNull File file) throws InvalidPluginException, UnknownDependencyException {
         Preconditions.checkArgument(file != null, "File cannot be null");
 
         checkUpdate(file);
@@ -415,6 +522,11 @@ public final class SimplePluginManager implements PluginManager {
             }
         }
 
+        return result;
+    }
+
+    @Nullable
+    private synchronized Plugin registerPlugin(@Nullable Plugin result) {
         if (result != null) {
             plugins.add(result);
             lookupNames.put(result.getDescription().getName(), result);
@@ -552,6 +664,14 @@ public final class SimplePluginManager implements PluginManager {
                 server.getLogger().log(Level.SEVERE, "Error occurred (in the plugin loader) while unregistering events for " + plugin.getDescription().getFullName() + " (Is it up to date?)", ex);
             }
 
+            ExecutorService asyncEventExecutor;
+            synchronized (asyncEventExecutors) {
+                asyncEventExecutor = asyncEventExecutors.remove(plugin);
+            }
+            if (asyncEventExecutor != null) {
+                asyncEventExecutor.shutdown();
+            }
+
             try {
                 server.getMessenger().unregisterIncomingPluginChannel(plugin);
                 server.getMessenger().unregisterOutgoingPluginChannel(plugin);
@@ -577,10 +697,12 @@ public final class SimplePluginManager implements PluginManager {
             lookupNames.clear();
             dependencyGraph = GraphBuilder.directed().build();
             HandlerList.unregisterAll();
+            handlerListCache = createHandlerListCache();
             fileAssociations.clear();
             permissions.clear();
             defaultPerms.get(true).clear();
             defaultPerms.get(false).clear();
+            permissionVersion = PERMISSION_VERSIONS.incrementAndGet();
         }
     }
 
@@ -616,35 +738,160 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     private void fireEvent(@NotNull Event event) {
-        HandlerList handlers = event.getHandlers();
-        RegisteredListener[] listeners = handlers.getRegisteredListeners();
-
-        for (RegisteredListener registration : listeners) {
-            if (!registration.getPlugin().isEnabled()) {
-                continue;
+        DispatchChain chain = event.getHandlers().getDispatchChain();
+        RegisteredListener[] listeners = chain.getListeners();
+
+        if (event instanceof Cancellable) {
+            Cancellable cancellable = (Cancellable) event;
+            int start = 0;
+            for (int segment = 0; segment < chain.getSegmentCount(); segment++) {
+                int end = chain.getSegmentEnd(segment);
+                boolean skipWhenCancelled = chain.isSkippedWhenCancelled(segment);
+                for (int i = start; i < end; i++) {
+                    if (skipWhenCancelled && cancellable.isCancelled()) {
+                        continue;
+                    }
+                    callListener(listeners[i], event);
+                }
+                start = end;
             }
+        } else {
+            for (RegisteredListener registration : listeners) {
+                callListener(registration, event);
+            }
+        }
+    }
 
-            try {
-                registration.callEvent(event);
-            } catch (AuthorNagException ex) {
-                Plugin plugin = registration.getPlugin();
-
-                if (plugin.isNaggable()) {
-                    plugin.setNaggable(false);
-
-                    server.getLogger().log(Level.SEVERE, String.format(
-                            "Nag author(s): '%s' of '%s' about the following: %s",
-                            plugin.getDescription().getAuthors(),
-                            plugin.getDescription().getFullName(),
-                            ex.getMessage()
-                            ));
+    private void callListener(@NotNull RegisteredListener registration, @NotNull Event event) {
+        try {
+            MetricsSettings metrics = metricsSettings;
+            if (metrics != null && metrics.sample()) {
+                long start = System.nanoTime();
+                try {
+                    execute(registration, event);
+                } finally {
+                    metrics.metrics.record(registration, event, System.nanoTime() - start);
                 }
-            } catch (Throwable ex) {
-                server.getLogger().log(Level.SEVERE, "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getDescription().getFullName(), ex);
+            } else {
+                execute(registration, event);
             }
+        } catch (AuthorNagException ex) {
+            Plugin plugin = registration.getPlugin();
+
+            if (plugin.isNaggable()) {
+                plugin.setNaggable(false);
+
+                server.getLogger().log(Level.SEVERE, String.format(
+                        "Nag author(s): '%s' of '%s' about the following: %s",
+                        plugin.getDescription().getAuthors(),
+                        plugin.getDescription().getFullName(),
+                        ex.getMessage()
+                        ));
+            }
+        } catch (Throwable ex) {
+            server.getLogger().log(Level.SEVERE, "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getDescription().getFullName(), ex);
+        }
+    }
+
+    private static void execute(@NotNull RegisteredListener registration, @NotNull Event event) throws EventException {
+        // The chain already skipped cancelled events for listeners ignoring them,
+        // so only subclasses such as TimedRegisteredListener still need callEvent
+        if (registration.getClass() == RegisteredListener.class) {
+            registration.getExecutor().execute(registration.getListener(), event);
+        } else {
+            registration.callEvent(event);
         }
     }
 
+    @Override
+    @NotNull
+    public <T extends Event> CompletableFuture<T> callEventAsync(@NotNull final T event, final long listenerTimeout, @NotNull final TimeUnit unit) {
+        Preconditions.checkArgument(event != null, "Event cannot be null");
+        Preconditions.checkArgument(event.isAsynchronous(), "%s is not an asynchronous event", event.getEventName());
+        Preconditions.checkArgument(listenerTimeout > 0, "Listener timeout must be positive");
+        Preconditions.checkArgument(unit != null, "TimeUnit cannot be null");
+
+        DispatchChain chain = event.getHandlers().getDispatchChain();
+        RegisteredListener[] listeners = chain.getListeners();
+        CompletableFuture<Void> pipeline = CompletableFuture.completedFuture(null);
+
+        int start = 0;
+        for (int segment = 0; segment < chain.getSegmentCount(); segment++) {
+            int end = chain.getSegmentEnd(segment);
+            final boolean skipWhenCancelled = chain.isSkippedWhenCancelled(segment) && event instanceof Cancellable;
+            for (int i = start; i < end; i++) {
+                final RegisteredListener registration = listeners[i];
+                pipeline = pipeline.thenCompose(ignored -> {
+                    if (skipWhenCancelled && ((Cancellable) event).isCancelled()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return callListenerAsync(registration, event, listenerTimeout, unit);
+                });
+            }
+            start = end;
+        }
+
+        return pipeline.thenApply(ignored -> event);
+    }
+
+    @NotNull
+    private CompletableFuture<Void> callListenerAsync(@NotNull final RegisteredListener registration, @NotNull final Event event, final long listenerTimeout, @NotNull final TimeUnit unit) {
+        final Plugin plugin = registration.getPlugin();
+        ExecutorService executor = getAsyncEventExecutor(plugin);
+        if (executor == null) {
+            // The plugin was disabled while the event was being dispatched
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Void> future;
+        try {
+            future = CompletableFuture.runAsync(() -> callListener(registration, event), executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // callListener handles all listener exceptions itself, so only the timeout can complete this exceptionally.
+        // The slow listener may still be changing the event, so the remaining listeners are skipped
+        return future.orTimeout(listenerTimeout, unit).whenComplete((ignored, ex) -> {
+            if (ex != null) {
+                server.getLogger().log(Level.WARNING, String.format(
+                        "Listener %s of %s exceeded its budget of %d ms for %s, skipping the remaining listeners",
+                        registration.getListener().getClass().getName(),
+                        plugin.getDescription().getFullName(),
+                        unit.toMillis(listenerTimeout),
+                        event.getEventName()
+                ));
+            }
+        });
+    }
+
+    @Nullable
+    private ExecutorService getAsyncEventExecutor(@NotNull Plugin plugin) {
+        // Same lock as disablePlugin, so a pool is never created for a plugin already disabled
+        synchronized (asyncEventExecutors) {
+            if (!plugin.isEnabled()) {
+                return null;
+            }
+
+            ExecutorService executor = asyncEventExecutors.get(plugin);
+            if (executor == null) {
+                executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                        .setNameFormat(plugin.getName().replace("%", "%%") + " Async Event Thread - %d")
+                        .setDaemon(true)
+                        .build());
+                asyncEventExecutors.put(plugin, executor);
+            }
+            return executor;
+        }
+    }
+
+    @Override
+    public boolean isListenedTo(@NotNull Class<? extends Event> event) {
+        Preconditions.checkArgument(event != null, "Event class cannot be null");
+
+        return getEventListeners(event).hasListeners();
+    }
+
     @Override
     public void registerEvents(@NotNull Listener listener, @NotNull Plugin plugin) {
         if (!plugin.isEnabled()) {
@@ -652,7 +899,7 @@ public final class SimplePluginManager implements PluginManager {
         }
 
         for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : plugin.getPluginLoader().createRegisteredListeners(listener, plugin).entrySet()) {
-            getEventListeners(getRegistrationClass(entry.getKey())).registerAll(entry.getValue());
+            getEventListeners(entry.getKey()).registerAll(entry.getValue());
         }
 
     }
@@ -693,19 +940,46 @@ public final class SimplePluginManager implements PluginManager {
     }
 
     @NotNull
-     private HandlerList getEventListeners(@NotNull Class<? extends Event> type) {
-        try {
-            Method method = getRegistrationClass(type).getDeclaredMethod("getHandlerList");
-            method.setAccessible(true);
+    private HandlerList getEventListeners(@NotNull Class<? extends Event> type) {
+        return handlerListCache.get(type);
+    }
 
-            if (!Modifier.isStatic(method.getModifiers())) {
-                throw new IllegalAccessException("getHandlerList must be static");
-            }
+    /**
+     * 清除指定事件类已缓存的处理器列表.
+     * <p>
+     * 在卸载插件时对其定义的事件类调用, 使缓存不再引用这些类.
+     * <p>
+     * 原文:Removes the cached handler list of the given event class.
+     * <p>
+     * Called for event classes defined by a plugin when it is unloaded, so
+     * the cache no longer references them.
+     *
+     * @param type 事件类
+     */
+    public void invalidateHandlerListCache(@NotNull Class<? extends Event> type) {
+        handlerListCache.remove(type);
+    }
 
-            return (HandlerList) method.invoke(null);
-        } catch (Exception e) {
-            throw new IllegalPluginAccessException("Error while registering listener for event type " + type.toString() + ": " + e.toString());
-        }
+    @NotNull
+    private ClassValue<HandlerList> createHandlerListCache() {
+        // Values only reference the key class and its superclasses, so entries never pin other class loaders
+        return new ClassValue<HandlerList>() {
+            @Override
+            protected HandlerList computeValue(Class<?> type) {
+                try {
+                    Method method = getRegistrationClass(type.asSubclass(Event.class)).getDeclaredMethod("getHandlerList");
+                    method.setAccessible(true);
+
+                    if (!Modifier.isStatic(method.getModifiers())) {
+                        throw new IllegalAccessException("getHandlerList must be static");
+                    }
+
+                    return (HandlerList) method.invoke(null);
+                } catch (Exception e) {
+                    throw new IllegalPluginAccessException("Error while registering listener for event type " + type.toString() + ": " + e.toString());
+                }
+            }
+        };
     }
 
     @NotNull
@@ -744,6 +1018,7 @@ public final class SimplePluginManager implements PluginManager {
         }
 
         permissions.put(name, perm);
+        permissionVersion = PERMISSION_VERSIONS.incrementAndGet();
         calculatePermissionDefault(perm, dirty);
     }
 
@@ -761,10 +1036,13 @@ public final class SimplePluginManager implements PluginManager {
     @Override
     public void removePermission(@NotNull String name) {
         permissions.remove(name.toLowerCase(Locale.ROOT));
+        permissionVersion = PERMISSION_VERSIONS.incrementAndGet();
     }
 
     @Override
     public void recalculatePermissionDefaults(@NotNull Permission perm) {
+        // Also reached through Permission#recalculatePermissibles after its children were edited
+        permissionVersion = PERMISSION_VERSIONS.incrementAndGet();
         if (perm != null && permissions.containsKey(perm.getName().toLowerCase(Locale.ROOT))) {
             defaultPerms.get(true).remove(perm);
             defaultPerms.get(false).remove(perm);
@@ -788,45 +1066,101 @@ public final class SimplePluginManager implements PluginManager {
         }
     }
 
+    /**
+     * 获取已注册权限的版本号.
+     * <p>
+     * 每当注册或移除权限, 重新计算某个权限的默认值(包括 {@link Permission#recalculatePermissibles()}),
+     * 或者调用 {@link #dirtyPermissibles()} 时,
+     * 版本号都会增加. 不同的插件管理器不会使用相同的版本号. 缓存了权限展开结果的 {@link Permissible} 可以据此判断缓存是否仍然有效.
+     * <p>
+     * 原文：Gets the version of the registered permissions.
+     * <p>
+     * The version is increased whenever a permission is registered or
+     * removed, the default value of a permission is recalculated
+     * (including by {@link Permission#recalculatePermissibles()}), or
+     * {@link #dirtyPermissibles()} is called. No two
+     * plugin managers ever use the same version.
+     * Permissibles caching expanded permissions can use it to tell whether
+     * their cache is still valid.
+     *
+     * @return 已注册权限的版本号
+     */
+    public long getPermissionVersion() {
+        return permissionVersion;
+    }
+
     @Deprecated(since = "1.12")
     public void dirtyPermissibles() {
-        dirtyPermissibles(true);
-        dirtyPermissibles(false);
+        // Callers edit permissions in place before this, so the registry counts as changed
+        permissionVersion = PERMISSION_VERSIONS.incrementAndGet();
+        // Recalculate everyone once, no matter which defaults they are subscribed to
+        Set<Permissible> permissibles = new LinkedHashSet<Permissible>(getDefaultPermSubscriptions(true));
+        permissibles.addAll(getDefaultPermSubscriptions(false));
+        recalculatePermissibles(permissibles);
     }
 
     private void dirtyPermissibles(boolean op) {
-        Set<Permissible> permissibles = getDefaultPermSubscriptions(op);
+        recalculatePermissibles(getDefaultPermSubscriptions(op));
+    }
+
+    private void recalculatePermissibles(@NotNull Set<Permissible> permissibles) {
+        if (parallelPermissionRecalculation && permissibles.size() > 1) {
+            permissibles.parallelStream().forEach(Permissible::recalculatePermissions);
+            return;
+        }
 
         for (Permissible p : permissibles) {
             p.recalculatePermissions();
         }
     }
 
+    /**
+     * 设置是否在多个线程中并行地重新计算权限.
+     * <p>
+     * 开启后, 默认权限发生变化(例如权限插件重新加载其权限组)时, 所有订阅了默认权限的
+     * {@link Permissible} 会被分配到公共的 {@link java.util.concurrent.ForkJoinPool} 中并行重新计算,
+     * 调用线程会等待全部计算完成. 只有在所有 Permissible 的实现都能在其他线程中安全地重新计算时才应开启.
+     * 默认关闭.
+     * <p>
+     * 原文：Sets whether permissions are recalculated in parallel on several
+     * threads.
+     * <p>
+     * When enabled and the default permissions change, e.g. because a
+     * permission plugin reloads its groups, every {@link Permissible}
+     * subscribed to the defaults is recalculated in parallel in the common
+     * {@link java.util.concurrent.ForkJoinPool}, with the calling thread
+     * waiting for all of them. Only enable this if every Permissible
+     * implementation can be safely recalculated off the calling thread.
+     * Disabled by default.
+     *
+     * @param parallel 是否并行重新计算
+     */
+    public void setParallelPermissionRecalculation(boolean parallel) {
+        parallelPermissionRecalculation = parallel;
+    }
+
     @Override
     public void subscribeToPermission(@NotNull String permission, @NotNull Permissible permissible) {
         String name = permission.toLowerCase(Locale.ROOT);
-        Map<Permissible, Boolean> map = permSubs.get(name);
 
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            permSubs.put(name, map);
-        }
-
-        map.put(permissible, true);
+        // Created and filled atomically, so a concurrent unsubscribe cannot drop it while empty
+        permSubs.compute(name, (key, map) -> {
+            if (map == null) {
+                map = createSubscriptionMap();
+            }
+            map.put(permissible, true);
+            return map;
+        });
     }
 
     @Override
     public void unsubscribeFromPermission(@NotNull String permission, @NotNull Permissible permissible) {
         String name = permission.toLowerCase(Locale.ROOT);
-        Map<Permissible, Boolean> map = permSubs.get(name);
 
-        if (map != null) {
+        permSubs.computeIfPresent(name, (key, map) -> {
             map.remove(permissible);
-
-            if (map.isEmpty()) {
-                permSubs.remove(name);
-            }
-        }
+            return map.isEmpty() ? null : map;
+        });
     }
 
     @Override
@@ -844,27 +1178,26 @@ public final class SimplePluginManager implements PluginManager {
 
     @Override
     public void subscribeToDefaultPerms(boolean op, @NotNull Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
-
-        if (map == null) {
-            map = new WeakHashMap<Permissible, Boolean>();
-            defSubs.put(op, map);
-        }
-
-        map.put(permissible, true);
+        defSubs.compute(op, (key, map) -> {
+            if (map == null) {
+                map = createSubscriptionMap();
+            }
+            map.put(permissible, true);
+            return map;
+        });
     }
 
     @Override
     public void unsubscribeFromDefaultPerms(boolean op, @NotNull Permissible permissible) {
-        Map<Permissible, Boolean> map = defSubs.get(op);
-
-        if (map != null) {
+        defSubs.computeIfPresent(op, (key, map) -> {
             map.remove(permissible);
+            return map.isEmpty() ? null : map;
+        });
+    }
 
-            if (map.isEmpty()) {
-                defSubs.remove(op);
-            }
-        }
+    @NotNull
+    private static Map<Permissible, Boolean> createSubscriptionMap() {
+        return new MapMaker().weakKeys().makeMap();
     }
 
     @Override
@@ -918,4 +1251,61 @@ public final class SimplePluginManager implements PluginManager {
     public void useTimings(boolean use) {
         useTimings = use;
     }
+
+    /**
+     * 设置 {@link #loadPlugins(File[])} 使用的线程数.
+     * <p>
+     * 大于 1 时, 插件描述文件会被并行读取, 互不依赖的插件也会被并行构造(打开 jar 并实例化主类),
+     * 但依赖与软依赖的加载顺序保持不变, 插件也依然按确定的顺序注册. 默认为 1, 即在调用线程中依次加载.
+     * <p>
+     * 原文：Sets the number of threads used by {@link #loadPlugins(File[])}.
+     * <p>
+     * When greater than 1, plugin descriptions are read in parallel and
+     * plugins not depending on each other are constructed (jar opened and
+     * main class instantiated) in parallel, while dependencies and soft
+     * dependencies are still loaded first and plugins are still registered
+     * in a deterministic order. Defaults to 1, loading plugins one by one on
+     * the calling thread.
+     *
+     * @param threads 线程数
+     */
+    public void setPluginLoadThreads(int threads) {
+        Preconditions.checkArgument(threads >= 1, "Thread count must be at least 1");
+        pluginLoadThreads = threads;
+    }
+
+    @Override
+    public void setListenerMetrics(@Nullable ListenerMetrics metrics, int sampleInterval) {
+        Preconditions.checkArgument(sampleInterval >= 1, "Sample interval must be at least 1");
+
+        metricsSettings = (metrics != null) ? new MetricsSettings(metrics, sampleInterval) : null;
+    }
+
+    @Override
+    @Nullable
+    public ListenerMetrics getListenerMetrics() {
+        MetricsSettings metrics = metricsSettings;
+        return (metrics != null) ? metrics.metrics : null;
+    }
+
+    @Override
+    @NotNull
+    public Map<RegisteredListener, LatencyHistogram.Snapshot> getListenerMetricsSnapshot() {
+        MetricsSettings metrics = metricsSettings;
+        return (metrics != null) ? metrics.metrics.snapshot() : ImmutableMap.<RegisteredListener, LatencyHistogram.Snapshot>of();
+    }
+
+    private static final class MetricsSettings {
+        private final ListenerMetrics metrics;
+        private final int sampleInterval;
+
+        private MetricsSettings(@NotNull ListenerMetrics metrics, int sampleInterval) {
+            this.metrics = metrics;
+            this.sampleInterval = sampleInterval;
+        }
+
+        private boolean sample() {
+            return sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+        }
+    }
 }
@@ -5,7 +5,6 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
@@ -14,6 +13,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -27,6 +27,7 @@ import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventException;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.event.server.PluginEnableEvent;
@@ -53,6 +54,8 @@ public final class JavaPluginLoader implements PluginLoader {
     final Server server;
     private final Pattern[] fileFilters = new Pattern[]{Pattern.compile("\\.jar$")};
     private final List<PluginClassLoader> loaders = new CopyOnWriteArrayList<PluginClassLoader>();
+    private final Map<String, List<PluginClassLoader>> packageIndex = new ConcurrentHashMap<String, List<PluginClassLoader>>();
+    private volatile Map<String, Set<String>> missingClasses = new ConcurrentHashMap<String, Set<String>>();
     private final LibraryLoader libraryLoader;
     public static final CustomTimingsHandler pluginParentTimer = new CustomTimingsHandler("** Plugins"); // Spigot
 
@@ -151,7 +154,7 @@ public final class JavaPluginLoader implements PluginLoader {
             throw new InvalidPluginException(ex);
         }
 
-        loaders.add(loader);
+        addLoader(loader);
 
         return loader.plugin;
     }
@@ -204,15 +207,60 @@ public final class JavaPluginLoader implements PluginLoader {
 
     @Nullable
     Class<?> getClassByName(final String name, boolean resolve, PluginDescriptionFile description) {
+        Map<String, Set<String>> missingClasses = this.missingClasses;
+        Set<String> missing = missingClasses.get(description.getName());
+        if (missing != null && missing.contains(name)) {
+            return null;
+        }
+
+        int dot = name.lastIndexOf('.');
+        List<PluginClassLoader> candidates = packageIndex.get((dot == -1) ? "" : name.substring(0, dot));
+        if (candidates != null) {
+            for (PluginClassLoader loader : candidates) {
+                try {
+                    return loader.loadClass0(name, resolve, false, false);
+                } catch (ClassNotFoundException cnfe) {
+                }
+            }
+        }
+
+        // Libraries are not indexed, but are only visible to transitive dependents
         for (PluginClassLoader loader : loaders) {
-            try {
-                return loader.loadClass0(name, resolve, false, ((SimplePluginManager) server.getPluginManager()).isTransitiveDepend(description, loader.plugin.getDescription()));
-            } catch (ClassNotFoundException cnfe) {
+            if (loader.hasLibraries() && ((SimplePluginManager) server.getPluginManager()).isTransitiveDepend(description, loader.plugin.getDescription())) {
+                try {
+                    return loader.loadClass0(name, resolve, false, true);
+                } catch (ClassNotFoundException cnfe) {
+                }
             }
         }
+
+        missingClasses.computeIfAbsent(description.getName(), key -> ConcurrentHashMap.newKeySet()).add(name);
         return null;
     }
 
+    private synchronized void addLoader(@NotNull PluginClassLoader loader) {
+        loaders.add(loader);
+        for (String packageName : loader.getPackageNames()) {
+            packageIndex.computeIfAbsent(packageName, key -> new CopyOnWriteArrayList<PluginClassLoader>()).add(loader);
+        }
+        // Lookups still running against the old map cannot pollute the new one
+        missingClasses = new ConcurrentHashMap<String, Set<String>>();
+    }
+
+    private synchronized void removeLoader(@NotNull PluginClassLoader loader) {
+        loaders.remove(loader);
+        for (String packageName : loader.getPackageNames()) {
+            List<PluginClassLoader> candidates = packageIndex.get(packageName);
+            if (candidates != null) {
+                candidates.remove(loader);
+                if (candidates.isEmpty()) {
+                    packageIndex.remove(packageName);
+                }
+            }
+        }
+        missingClasses = new ConcurrentHashMap<String, Set<String>>();
+    }
+
     void setClass(@NotNull final String name, @NotNull final Class<?> clazz) {
         if (ConfigurationSerializable.class.isAssignableFrom(clazz)) {
             Class<? extends ConfigurationSerializable> serializable = clazz.asSubclass(ConfigurationSerializable.class);
@@ -225,6 +273,10 @@ public final class JavaPluginLoader implements PluginLoader {
             Class<? extends ConfigurationSerializable> serializable = clazz.asSubclass(ConfigurationSerializable.class);
             ConfigurationSerialization.unregisterClass(serializable);
         }
+
+        if (Event.class.isAssignableFrom(clazz) && server.getPluginManager() instanceof SimplePluginManager) {
+            ((SimplePluginManager) server.getPluginManager()).invalidateHandlerListCache(clazz.asSubclass(Event.class));
+        }
     }
 
     @Override
@@ -265,7 +317,6 @@ public final class JavaPluginLoader implements PluginLoader {
                 continue;
             }
             final Class<? extends Event> eventClass = checkClass.asSubclass(Event.class);
-            method.setAccessible(true);
             Set<RegisteredListener> eventSet = ret.get(eventClass);
             if (eventSet == null) {
                 eventSet = new HashSet<RegisteredListener>();
@@ -295,24 +346,19 @@ public final class JavaPluginLoader implements PluginLoader {
             }
 
             final CustomTimingsHandler timings = new CustomTimingsHandler("Plugin: " + plugin.getDescription().getFullName() + " Event: " + listener.getClass().getName() + "::" + method.getName() + "(" + eventClass.getSimpleName() + ")", pluginParentTimer); // Spigot
+            final EventExecutor handlerExecutor = EventExecutor.create(method, eventClass);
             EventExecutor executor = new EventExecutor() {
                 @Override
                 public void execute(@NotNull Listener listener, @NotNull Event event) throws EventException {
-                    try {
-                        if (!eventClass.isAssignableFrom(event.getClass())) {
-                            return;
-                        }
-                        // Spigot start
-                        boolean isAsync = event.isAsynchronous();
-                        if (!isAsync) timings.startTiming();
-                        method.invoke(listener, event);
-                        if (!isAsync) timings.stopTiming();
-                        // Spigot end
-                    } catch (InvocationTargetException ex) {
-                        throw new EventException(ex.getCause());
-                    } catch (Throwable t) {
-                        throw new EventException(t);
+                    if (!eventClass.isAssignableFrom(event.getClass())) {
+                        return;
                     }
+                    // Spigot start
+                    boolean isAsync = event.isAsynchronous();
+                    if (!isAsync) timings.startTiming();
+                    handlerExecutor.execute(listener, event);
+                    if (!isAsync) timings.stopTiming();
+                    // Spigot end
                 }
             };
             if (false) { // Spigot - RL handles useTimings check now
@@ -336,7 +382,7 @@ public final class JavaPluginLoader implements PluginLoader {
             PluginClassLoader pluginLoader = (PluginClassLoader) jPlugin.getClassLoader();
 
             if (!loaders.contains(pluginLoader)) {
-                loaders.add(pluginLoader);
+                addLoader(pluginLoader);
                 server.getLogger().log(Level.WARNING, "Enabled plugin with unregistered PluginClassLoader " + plugin.getDescription().getFullName());
             }
 
@@ -365,6 +411,10 @@ public final class JavaPluginLoader implements PluginLoader {
             JavaPlugin jPlugin = (JavaPlugin) plugin;
             ClassLoader cloader = jPlugin.getClassLoader();
 
+            // Baked dispatch chains only drop disabled plugins when rebaked,
+            // so invalidate them before onDisable can trigger further events
+            HandlerList.unregisterAll(plugin);
+
             try {
                 jPlugin.setEnabled(false);
             } catch (Throwable ex) {
@@ -373,7 +423,7 @@ public final class JavaPluginLoader implements PluginLoader {
 
             if (cloader instanceof PluginClassLoader) {
                 PluginClassLoader loader = (PluginClassLoader) cloader;
-                loaders.remove(loader);
+                removeLoader(loader);
 
                 Collection<Class<?>> classes = loader.getClasses();
 
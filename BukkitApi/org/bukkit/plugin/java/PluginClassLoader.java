@@ -15,6 +15,7 @@ import java.security.CodeSource;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,6 +40,7 @@ final class PluginClassLoader extends URLClassLoader {
     private final File file;
     private final JarFile jar;
     private final Manifest manifest;
+    private final Set<String> packageNames;
     private final URL url;
     private final ClassLoader libraryLoader;
     final JavaPlugin plugin;
@@ -60,6 +62,7 @@ final class PluginClassLoader extends URLClassLoader {
         this.file = file;
         this.jar = new JarFile(file);
         this.manifest = jar.getManifest();
+        this.packageNames = readPackageNames(jar);
         this.url = file.toURI().toURL();
         this.libraryLoader = libraryLoader;
 
@@ -231,6 +234,36 @@ final class PluginClassLoader extends URLClassLoader {
         return classes.values();
     }
 
+    /**
+     * 获取插件 jar 中包含类文件的所有包名, 默认包以空字符串表示.
+     *
+     * @return 包名集合
+     */
+    @NotNull
+    Set<String> getPackageNames() {
+        return packageNames;
+    }
+
+    boolean hasLibraries() {
+        return libraryLoader != null;
+    }
+
+    @NotNull
+    private static Set<String> readPackageNames(@NotNull JarFile jar) {
+        Set<String> packages = new HashSet<String>();
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String entry = entries.nextElement().getName();
+            if (!entry.endsWith(".class") || entry.startsWith("META-INF/")) {
+                continue;
+            }
+
+            int slash = entry.lastIndexOf('/');
+            packages.add((slash == -1) ? "" : entry.substring(0, slash).replace('/', '.'));
+        }
+        return Collections.unmodifiableSet(packages);
+    }
+
     synchronized void initialize(@NotNull JavaPlugin javaPlugin) {
         Preconditions.checkArgument(javaPlugin != null, "Initializing plugin cannot be null");
         Preconditions.checkArgument(javaPlugin.getClass().getClassLoader() == this, "Cannot initialize plugin outside of this class loader");
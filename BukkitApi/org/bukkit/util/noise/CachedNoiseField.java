@@ -0,0 +1,238 @@
+package org.bukkit.util.noise;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 以图块为单位计算并缓存 {@link OctaveGenerator} 在整数坐标上的噪音.
+ * <p>
+ * 点 (x, y, z) 的值等于 {@code generator.noise(x, y, z, frequency, amplitude, normalized)}.
+ * 噪音以给定大小的图块为单位, 通过 {@link OctaveGenerator#noise(double[], double, double, double, double, double, double, int, int, int, double, double, boolean)}
+ * 一次算完, 并保存在容量有限的缓存中; 缓存已满时, 最久未被使用的图块会被移除.
+ * 因此相邻区块的边界, 生物群系混合等反复读取同一区域的场合只需计算一次噪音.
+ * 噪音的频率由发生器的区间大小决定, 例如 {@code generator.setScale(1 / 64.0)}.
+ * <p>
+ * 此类可以同时在多个线程中使用, 但在使用期间不应修改发生器的区间大小.
+ * 每个图块占用 {@code 8 * tileSizeX * tileSizeY * tileSizeZ} 字节内存.
+ * 只需要二维噪音时, 可以将 Z 方向的图块大小设为 1 并使用 {@link #get(int, int)}.
+ */
+public final class CachedNoiseField {
+    private final OctaveGenerator generator;
+    private final double frequency;
+    private final double amplitude;
+    private final boolean normalized;
+    private final int tileSizeX;
+    private final int tileSizeY;
+    private final int tileSizeZ;
+    private final LoadingCache<TileKey, double[]> tiles;
+
+    /**
+     * 创建一个缓存的噪音场.
+     * <p>
+     * 原文:Creates a cached noise field
+     *
+     * @param generator 计算噪音的发生器
+     * @param frequency 每一个倍频改变多少频率
+     * @param amplitude 每一个倍频改变多少振幅
+     * @param normalized 如果为true,规范这个值为[-1, 1]
+     * @param tileSizeX 图块在X轴上的大小
+     * @param tileSizeY 图块在Y轴上的大小
+     * @param tileSizeZ 图块在Z轴上的大小
+     * @param maximumTiles 最多缓存的图块数量
+     */
+    public CachedNoiseField(@NotNull OctaveGenerator generator, double frequency, double amplitude, boolean normalized, int tileSizeX, int tileSizeY, int tileSizeZ, long maximumTiles) {
+        Preconditions.checkArgument(generator != null, "Generator cannot be null");
+        Preconditions.checkArgument(tileSizeX > 0 && tileSizeY > 0 && tileSizeZ > 0, "Tile size must be positive (%s x %s x %s)", tileSizeX, tileSizeY, tileSizeZ);
+        Preconditions.checkArgument((long) tileSizeX * tileSizeY * tileSizeZ <= Integer.MAX_VALUE, "Tile size too large (%s x %s x %s)", tileSizeX, tileSizeY, tileSizeZ);
+        Preconditions.checkArgument(maximumTiles > 0, "Maximum tiles must be positive");
+
+        this.generator = generator;
+        this.frequency = frequency;
+        this.amplitude = amplitude;
+        this.normalized = normalized;
+        this.tileSizeX = tileSizeX;
+        this.tileSizeY = tileSizeY;
+        this.tileSizeZ = tileSizeZ;
+        this.tiles = CacheBuilder.newBuilder()
+                .maximumSize(maximumTiles)
+                .recordStats()
+                .build(new CacheLoader<TileKey, double[]>() {
+                    @Override
+                    public double[] load(@NotNull TileKey key) {
+                        return computeTile(key);
+                    }
+                });
+    }
+
+    /**
+     * 获取二维坐标上的噪音, 等同于 {@code get(x, y, 0)}.
+     * <p>
+     * 原文:Gets the noise at the given 2D coordinates, the same as
+     * {@code get(x, y, 0)}
+     *
+     * @param x X坐标
+     * @param y Y坐标
+     * @return 噪音结果
+     */
+    public double get(int x, int y) {
+        return get(x, y, 0);
+    }
+
+    /**
+     * 获取三维坐标上的噪音.
+     * <p>
+     * 原文:Gets the noise at the given 3D coordinates
+     *
+     * @param x X坐标
+     * @param y Y坐标
+     * @param z Z坐标
+     * @return 噪音结果
+     */
+    public double get(int x, int y, int z) {
+        int tileX = Math.floorDiv(x, tileSizeX);
+        int tileY = Math.floorDiv(y, tileSizeY);
+        int tileZ = Math.floorDiv(z, tileSizeZ);
+        double[] tile = tiles.getUnchecked(new TileKey(tileX, tileY, tileZ));
+        int localX = x - tileX * tileSizeX;
+        int localY = y - tileY * tileSizeY;
+        int localZ = z - tileZ * tileSizeZ;
+        return tile[(localX * tileSizeZ + localZ) * tileSizeY + localY];
+    }
+
+    /**
+     * 读取整数网格上每一个点的噪音, 并写入给定的数组.
+     * <p>
+     * 网格的布局与 {@link NoiseGenerator#noise(double[], double, double, double, double, double, double, int, int, int)} 相同,
+     * 相邻的点的间距为 1. 网格可以跨越多个图块.
+     * <p>
+     * 原文:Reads the noise for each point of an integer grid into the given
+     * array
+     *
+     * @param out 写入噪音的数组, 长度至少为 nx * ny * nz
+     * @param x0 网格起点的X坐标
+     * @param y0 网格起点的Y坐标
+     * @param z0 网格起点的Z坐标
+     * @param nx X轴上点的数量
+     * @param ny Y轴上点的数量
+     * @param nz Z轴上点的数量
+     */
+    public void get(@NotNull double[] out, int x0, int y0, int z0, int nx, int ny, int nz) {
+        NoiseGenerator.checkGrid(out, nx, ny, nz);
+
+        for (int i = 0; i < nx; i++) {
+            int x = x0 + i;
+            int tileX = Math.floorDiv(x, tileSizeX);
+            int localX = x - tileX * tileSizeX;
+            for (int k = 0; k < nz; k++) {
+                int z = z0 + k;
+                int tileZ = Math.floorDiv(z, tileSizeZ);
+                int localZ = z - tileZ * tileSizeZ;
+                int row = (i * nz + k) * ny;
+                // Copy the Y run of each tile at once
+                for (int j = 0; j < ny; ) {
+                    int y = y0 + j;
+                    int tileY = Math.floorDiv(y, tileSizeY);
+                    int localY = y - tileY * tileSizeY;
+                    int length = Math.min(ny - j, tileSizeY - localY);
+                    double[] tile = tiles.getUnchecked(new TileKey(tileX, tileY, tileZ));
+                    System.arraycopy(tile, (localX * tileSizeZ + localZ) * tileSizeY + localY, out, row + j, length);
+                    j += length;
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取读取图块时命中缓存的次数.
+     * <p>
+     * 原文:Gets the number of tile reads that hit the cache
+     *
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return tiles.stats().hitCount();
+    }
+
+    /**
+     * 获取读取图块时未命中缓存, 因而需要计算图块的次数.
+     * <p>
+     * 原文:Gets the number of tile reads that missed the cache, so the tile
+     * had to be computed
+     *
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return tiles.stats().missCount();
+    }
+
+    /**
+     * 获取因缓存已满而被移除的图块数量.
+     * <p>
+     * 原文:Gets the number of tiles evicted because the cache was full
+     *
+     * @return 移除的图块数量
+     */
+    public long getEvictionCount() {
+        return tiles.stats().evictionCount();
+    }
+
+    /**
+     * 获取当前缓存的图块数量.
+     * <p>
+     * 原文:Gets the number of tiles currently cached
+     *
+     * @return 图块数量
+     */
+    public long getCachedTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * 清空缓存. 修改发生器的区间大小后应调用此方法.
+     * <p>
+     * 原文:Clears the cache. This should be called after changing the scale
+     * of the generator.
+     */
+    public void invalidateAll() {
+        tiles.invalidateAll();
+    }
+
+    @NotNull
+    private double[] computeTile(@NotNull TileKey key) {
+        double[] tile = new double[tileSizeX * tileSizeY * tileSizeZ];
+        generator.noise(tile, (double) key.x * tileSizeX, (double) key.y * tileSizeY, (double) key.z * tileSizeZ, 1, 1, 1, tileSizeX, tileSizeY, tileSizeZ, frequency, amplitude, normalized);
+        return tile;
+    }
+
+    private static final class TileKey {
+        private final int x;
+        private final int y;
+        private final int z;
+
+        private TileKey(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        @Override
+        public int hashCode() {
+            return (x * 31 + y) * 31 + z;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TileKey)) {
+                return false;
+            }
+            TileKey other = (TileKey) obj;
+            return x == other.x && y == other.y && z == other.z;
+        }
+    }
+}
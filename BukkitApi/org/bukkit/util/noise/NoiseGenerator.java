@@ -1,4 +1,6 @@
 package org.bukkit.util.noise;
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
 /**
  * 所有噪音产生器的基类。
  * <p>
@@ -66,6 +68,60 @@ public abstract class NoiseGenerator {
      * @return 给定位置的噪音, 取值范围 -1 到 1
      */
     public abstract double noise(double x, double y, double z);
+    /**
+     * 计算三维网格上每一个点的噪音, 并写入给定的数组.
+     * <p>
+     * 网格的第 (i, j, k) 个点的坐标为 (x0 + i * dx, y0 + j * dy, z0 + k * dz),
+     * 其噪音被写入 {@code out[(i * nz + k) * ny + j]}, 即 Y 坐标变化最快, 其次是 Z 坐标, 最后是 X 坐标.
+     * 每一个点的结果都与对该点调用 {@link #noise(double, double, double)} 的结果完全相同,
+     * 但整个网格一次算完, 各轴上只与该轴有关的部分只需计算一次.
+     * 例如, 一个区块中每一列的噪音可以通过 {@code noise(out, chunkX * 16, 0, chunkZ * 16, 1, 1, 1, 16, 1, 16)} 获得.
+     * <p>
+     * 原文：Computes the noise for each point of a 3D grid into the given array.
+     * <p>
+     * The point (i, j, k) of the grid is at (x0 + i * dx, y0 + j * dy, z0 + k * dz)
+     * and its noise is written to {@code out[(i * nz + k) * ny + j]}, so Y
+     * changes fastest, then Z, then X. Each result is exactly the same as
+     * calling {@link #noise(double, double, double)} for that point, but the
+     * whole grid is computed at once, so the parts that depend on only one
+     * axis are computed once per axis.
+     *
+     * @param out 写入噪音的数组, 长度至少为 nx * ny * nz
+     * @param x0 网格起点的X坐标
+     * @param y0 网格起点的Y坐标
+     * @param z0 网格起点的Z坐标
+     * @param dx 相邻的点在X轴上的间距
+     * @param dy 相邻的点在Y轴上的间距
+     * @param dz 相邻的点在Z轴上的间距
+     * @param nx X轴上点的数量
+     * @param ny Y轴上点的数量
+     * @param nz Z轴上点的数量
+     */
+    public void noise(@NotNull double[] out, double x0, double y0, double z0, double dx, double dy, double dz, int nx, int ny, int nz) {
+        checkGrid(out, nx, ny, nz);
+        noiseGrid(out, axis(x0, dx, nx), axis(y0, dy, ny), axis(z0, dz, nz));
+    }
+    /**
+     * 计算由各轴坐标确定的网格上每一个点的噪音, 布局与 {@link #noise(double[], double, double, double, double, double, double, int, int, int)} 相同.
+     * <p>
+     * 默认实现对每一个点调用 {@link #noise(double, double, double)}. 子类可以重写此方法以批量计算,
+     * 但结果必须与逐点调用相同.
+     *
+     * @param out 写入噪音的数组, 长度至少为各轴坐标数量之积
+     * @param xs 网格在X轴上的各个坐标
+     * @param ys 网格在Y轴上的各个坐标
+     * @param zs 网格在Z轴上的各个坐标
+     */
+    protected void noiseGrid(@NotNull double[] out, @NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs) {
+        int index = 0;
+        for (double x : xs) {
+            for (double z : zs) {
+                for (double y : ys) {
+                    out[index++] = noise(x, y, z);
+                }
+            }
+        }
+    }
     /**
      * 使用特殊的数个倍频和参数产生一个一维坐标的噪音。
      * <p>
@@ -178,4 +234,17 @@ public abstract class NoiseGenerator {
         }
         return result;
     }
+    static void checkGrid(@NotNull double[] out, int nx, int ny, int nz) {
+        Preconditions.checkArgument(out != null, "Output array cannot be null");
+        Preconditions.checkArgument(nx > 0 && ny > 0 && nz > 0, "Grid size must be positive (%s x %s x %s)", nx, ny, nz);
+        Preconditions.checkArgument(out.length >= (long) nx * ny * nz, "Output array too small for a %s x %s x %s grid (%s)", nx, ny, nz, out.length);
+    }
+    @NotNull
+    static double[] axis(double start, double step, int count) {
+        double[] coords = new double[count];
+        for (int i = 0; i < count; i++) {
+            coords[i] = start + i * step;
+        }
+        return coords;
+    }
 }
\ No newline at end of file
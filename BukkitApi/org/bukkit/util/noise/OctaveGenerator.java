@@ -1,5 +1,6 @@
 package org.bukkit.util.noise;
 
+import java.util.Arrays;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -214,4 +215,88 @@ public abstract class OctaveGenerator {
         }
         return result;
     }
+    /**
+     * 使用既定倍频和参数计算三维网格上每一个点的噪音, 并写入给定的数组.
+     * <p>
+     * 网格的布局与 {@link NoiseGenerator#noise(double[], double, double, double, double, double, double, int, int, int)} 相同.
+     * 每一个点的结果都与对该点调用 {@link #noise(double, double, double, double, double)} 的结果完全相同.
+     * <p>
+     * 原文:Generates noise for each point of a 3D grid into the given array,
+     * using the specified number of octaves and parameters
+     *
+     * @param out 写入噪音的数组, 长度至少为 nx * ny * nz
+     * @param x0 网格起点的X坐标
+     * @param y0 网格起点的Y坐标
+     * @param z0 网格起点的Z坐标
+     * @param dx 相邻的点在X轴上的间距
+     * @param dy 相邻的点在Y轴上的间距
+     * @param dz 相邻的点在Z轴上的间距
+     * @param nx X轴上点的数量
+     * @param ny Y轴上点的数量
+     * @param nz Z轴上点的数量
+     * @param frequency 每一个倍频改变多少频率
+     * @param amplitude 每一个倍频改变多少振幅
+     */
+    public void noise(@NotNull double[] out, double x0, double y0, double z0, double dx, double dy, double dz, int nx, int ny, int nz, double frequency, double amplitude) {
+        noise(out, x0, y0, z0, dx, dy, dz, nx, ny, nz, frequency, amplitude, false);
+    }
+    /**
+     * 使用既定倍频和参数计算三维网格上每一个点的噪音, 并写入给定的数组.
+     * <p>
+     * 网格的布局与 {@link NoiseGenerator#noise(double[], double, double, double, double, double, double, int, int, int)} 相同.
+     * 每一个点的结果都与对该点调用 {@link #noise(double, double, double, double, double, boolean)} 的结果完全相同.
+     * 由于此类的二维噪音就是 Z 坐标为 0 的三维噪音, 令 nz 为 1 且 z0 为 0 即可计算二维的网格.
+     * <p>
+     * 原文:Generates noise for each point of a 3D grid into the given array,
+     * using the specified number of octaves and parameters
+     *
+     * @param out 写入噪音的数组, 长度至少为 nx * ny * nz
+     * @param x0 网格起点的X坐标
+     * @param y0 网格起点的Y坐标
+     * @param z0 网格起点的Z坐标
+     * @param dx 相邻的点在X轴上的间距
+     * @param dy 相邻的点在Y轴上的间距
+     * @param dz 相邻的点在Z轴上的间距
+     * @param nx X轴上点的数量
+     * @param ny Y轴上点的数量
+     * @param nz Z轴上点的数量
+     * @param frequency 每一个倍频改变多少频率
+     * @param amplitude 每一个倍频改变多少振幅
+     * @param normalized 如果为true,规范这个值为[-1, 1]
+     */
+    public void noise(@NotNull double[] out, double x0, double y0, double z0, double dx, double dy, double dz, int nx, int ny, int nz, double frequency, double amplitude, boolean normalized) {
+        NoiseGenerator.checkGrid(out, nx, ny, nz);
+        int size = nx * ny * nz;
+        double[] octaveOut = new double[size];
+        double[] xs = new double[nx];
+        double[] ys = new double[ny];
+        double[] zs = new double[nz];
+        Arrays.fill(out, 0, size, 0);
+        double amp = 1;
+        double freq = 1;
+        double max = 0;
+        for (NoiseGenerator octave : octaves) {
+            // Same operations in the same order as the single point method, so the results match exactly
+            scaleAxis(xs, x0, dx, xScale, freq);
+            scaleAxis(ys, y0, dy, yScale, freq);
+            scaleAxis(zs, z0, dz, zScale, freq);
+            octave.noiseGrid(octaveOut, xs, ys, zs);
+            for (int i = 0; i < size; i++) {
+                out[i] += octaveOut[i] * amp;
+            }
+            max += amp;
+            freq *= frequency;
+            amp *= amplitude;
+        }
+        if (normalized) {
+            for (int i = 0; i < size; i++) {
+                out[i] /= max;
+            }
+        }
+    }
+    private static void scaleAxis(@NotNull double[] coords, double start, double step, double scale, double freq) {
+        for (int i = 0; i < coords.length; i++) {
+            coords[i] = (start + i * step) * scale * freq;
+        }
+    }
 }
@@ -0,0 +1,271 @@
+package org.bukkit.util.noise;
+
+import com.google.common.base.Preconditions;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 以固定的频率在整数坐标(例如方块坐标)上批量取样柏林噪声.
+ * <p>
+ * 取样点 (x, y, z) 的噪音等于
+ * {@code generator.noise(x * xFrequency, y * yFrequency, z * zFrequency)}.
+ * 由于坐标都是整数且频率固定, 每一个坐标所在的单位方块, 相关坐标与消退曲线只按轴计算一次,
+ * 并且同一轴上最近一次使用的结果会被保留下来, 供下次取样相同范围时直接使用(例如每个区块相同的Y轴).
+ * 沿Y轴逐点取样时, 只要点仍在同一个单位方块中, 方块各角的梯度哈希也不会重新计算.
+ * <p>
+ * {@link #sample(double[], int, int, int, int, int, int)} 的结果与逐点调用 {@link PerlinNoiseGenerator#noise(double, double, double)}
+ * 完全相同. {@link #sample(float[], int, int, int, int, int, int)} 以单精度进行插值,
+ * 结果与双精度的结果只有微小的差别, 并且对于相同的种子总是相同的, 适合需要保存大量噪音的场合.
+ * <p>
+ * 取样器在创建时复制了噪声发生器的排列表与偏移量, 因此之后对发生器的修改不会影响取样器,
+ * 取样器也可以同时在多个线程中使用.
+ */
+public final class PerlinLatticeSampler {
+    private static final float[] GRAD_U_X = new float[16];
+    private static final float[] GRAD_U_Y = new float[16];
+    private static final float[] GRAD_V_X = new float[16];
+    private static final float[] GRAD_V_Y = new float[16];
+    private static final float[] GRAD_V_Z = new float[16];
+
+    static {
+        // Coefficients of NoiseGenerator#grad, so that grad = u + v with u and v picked from x, y and z
+        for (int hash = 0; hash < 16; hash++) {
+            float uSign = (hash & 1) == 0 ? 1 : -1;
+            float vSign = (hash & 2) == 0 ? 1 : -1;
+            if (hash < 8) {
+                GRAD_U_X[hash] = uSign;
+            } else {
+                GRAD_U_Y[hash] = uSign;
+            }
+            if (hash < 4) {
+                GRAD_V_Y[hash] = vSign;
+            } else if (hash == 12 || hash == 14) {
+                GRAD_V_X[hash] = vSign;
+            } else {
+                GRAD_V_Z[hash] = vSign;
+            }
+        }
+    }
+
+    private final int[] perm;
+    private final double offsetX;
+    private final double offsetY;
+    private final double offsetZ;
+    private final double xFrequency;
+    private final double yFrequency;
+    private final double zFrequency;
+    private volatile Axis lastX;
+    private volatile Axis lastY;
+    private volatile Axis lastZ;
+
+    /**
+     * 为给定的柏林噪声发生器创建取样器.
+     * <p>
+     * 原文:Creates a sampler for the given perlin noise generator
+     *
+     * @param generator 柏林噪声发生器, 不能是其子类(例如 {@link SimplexNoiseGenerator})
+     * @param xFrequency X坐标的频率
+     * @param yFrequency Y坐标的频率
+     * @param zFrequency Z坐标的频率
+     */
+    public PerlinLatticeSampler(@NotNull PerlinNoiseGenerator generator, double xFrequency, double yFrequency, double zFrequency) {
+        Preconditions.checkArgument(generator != null, "Generator cannot be null");
+        Preconditions.checkArgument(generator.getClass() == PerlinNoiseGenerator.class, "Generator must be a plain PerlinNoiseGenerator, not %s", generator.getClass().getName());
+
+        this.perm = generator.perm.clone();
+        this.offsetX = generator.offsetX;
+        this.offsetY = generator.offsetY;
+        this.offsetZ = generator.offsetZ;
+        this.xFrequency = xFrequency;
+        this.yFrequency = yFrequency;
+        this.zFrequency = zFrequency;
+    }
+
+    /**
+     * 取样整数网格上每一个点的噪音, 并写入给定的数组.
+     * <p>
+     * 网格的布局与 {@link NoiseGenerator#noise(double[], double, double, double, double, double, double, int, int, int)} 相同,
+     * 相邻的点的间距为 1.
+     * <p>
+     * 原文:Samples the noise for each point of an integer grid into the given
+     * array
+     *
+     * @param out 写入噪音的数组, 长度至少为 nx * ny * nz
+     * @param x0 网格起点的X坐标
+     * @param y0 网格起点的Y坐标
+     * @param z0 网格起点的Z坐标
+     * @param nx X轴上点的数量
+     * @param ny Y轴上点的数量
+     * @param nz Z轴上点的数量
+     */
+    public void sample(@NotNull double[] out, int x0, int y0, int z0, int nx, int ny, int nz) {
+        NoiseGenerator.checkGrid(out, nx, ny, nz);
+        Axis xAxis = lastX = axis(lastX, x0, nx, xFrequency, offsetX);
+        Axis yAxis = lastY = axis(lastY, y0, ny, yFrequency, offsetY);
+        Axis zAxis = lastZ = axis(lastZ, z0, nz, zFrequency, offsetZ);
+        int[] perm = this.perm;
+
+        int index = 0;
+        for (int i = 0; i < nx; i++) {
+            int permX = perm[xAxis.cells[i]];
+            int permX1 = perm[xAxis.cells[i] + 1];
+            double x = xAxis.rel[i];
+            double fX = xAxis.fades[i];
+            for (int k = 0; k < nz; k++) {
+                int Z = zAxis.cells[k];
+                double z = zAxis.rel[k];
+                double fZ = zAxis.fades[k];
+                int lastCellY = -1;
+                int h0 = 0, h1 = 0, h2 = 0, h3 = 0, h4 = 0, h5 = 0, h6 = 0, h7 = 0;
+                for (int j = 0; j < ny; j++) {
+                    int Y = yAxis.cells[j];
+                    if (Y != lastCellY) {
+                        lastCellY = Y;
+                        int A = permX + Y;
+                        int AA = perm[A] + Z;
+                        int AB = perm[A + 1] + Z;
+                        int B = permX1 + Y;
+                        int BA = perm[B] + Z;
+                        int BB = perm[B + 1] + Z;
+                        h0 = perm[AA];
+                        h1 = perm[BA];
+                        h2 = perm[AB];
+                        h3 = perm[BB];
+                        h4 = perm[AA + 1];
+                        h5 = perm[BA + 1];
+                        h6 = perm[AB + 1];
+                        h7 = perm[BB + 1];
+                    }
+                    double y = yAxis.rel[j];
+                    double fY = yAxis.fades[j];
+                    out[index++] = NoiseGenerator.lerp(fZ, NoiseGenerator.lerp(fY, NoiseGenerator.lerp(fX, NoiseGenerator.grad(h0, x, y, z),
+                                    NoiseGenerator.grad(h1, x - 1, y, z)),
+                                NoiseGenerator.lerp(fX, NoiseGenerator.grad(h2, x, y - 1, z),
+                                    NoiseGenerator.grad(h3, x - 1, y - 1, z))),
+                            NoiseGenerator.lerp(fY, NoiseGenerator.lerp(fX, NoiseGenerator.grad(h4, x, y, z - 1),
+                                    NoiseGenerator.grad(h5, x - 1, y, z - 1)),
+                                NoiseGenerator.lerp(fX, NoiseGenerator.grad(h6, x, y - 1, z - 1),
+                                    NoiseGenerator.grad(h7, x - 1, y - 1, z - 1))));
+                }
+            }
+        }
+    }
+
+    /**
+     * 以单精度取样整数网格上每一个点的噪音, 并写入给定的数组.
+     * <p>
+     * 网格的布局与 {@link #sample(double[], int, int, int, int, int, int)} 相同.
+     * 单位方块与相关坐标仍以双精度计算, 因此在远离原点的坐标上精度不会下降.
+     * <p>
+     * 原文:Samples the noise for each point of an integer grid into the given
+     * array, using single precision
+     *
+     * @param out 写入噪音的数组, 长度至少为 nx * ny * nz
+     * @param x0 网格起点的X坐标
+     * @param y0 网格起点的Y坐标
+     * @param z0 网格起点的Z坐标
+     * @param nx X轴上点的数量
+     * @param ny Y轴上点的数量
+     * @param nz Z轴上点的数量
+     */
+    public void sample(@NotNull float[] out, int x0, int y0, int z0, int nx, int ny, int nz) {
+        Preconditions.checkArgument(out != null, "Output array cannot be null");
+        Preconditions.checkArgument(nx > 0 && ny > 0 && nz > 0, "Grid size must be positive (%s x %s x %s)", nx, ny, nz);
+        Preconditions.checkArgument(out.length >= (long) nx * ny * nz, "Output array too small for a %s x %s x %s grid (%s)", nx, ny, nz, out.length);
+        Axis xAxis = lastX = axis(lastX, x0, nx, xFrequency, offsetX);
+        Axis yAxis = lastY = axis(lastY, y0, ny, yFrequency, offsetY);
+        Axis zAxis = lastZ = axis(lastZ, z0, nz, zFrequency, offsetZ);
+        int[] perm = this.perm;
+
+        int index = 0;
+        for (int i = 0; i < nx; i++) {
+            int permX = perm[xAxis.cells[i]];
+            int permX1 = perm[xAxis.cells[i] + 1];
+            float x = xAxis.relFloat[i];
+            float fX = xAxis.fadesFloat[i];
+            for (int k = 0; k < nz; k++) {
+                int Z = zAxis.cells[k];
+                float z = zAxis.relFloat[k];
+                float fZ = zAxis.fadesFloat[k];
+                int lastCellY = -1;
+                int h0 = 0, h1 = 0, h2 = 0, h3 = 0, h4 = 0, h5 = 0, h6 = 0, h7 = 0;
+                for (int j = 0; j < ny; j++) {
+                    int Y = yAxis.cells[j];
+                    if (Y != lastCellY) {
+                        lastCellY = Y;
+                        int A = permX + Y;
+                        int AA = perm[A] + Z;
+                        int AB = perm[A + 1] + Z;
+                        int B = permX1 + Y;
+                        int BA = perm[B] + Z;
+                        int BB = perm[B + 1] + Z;
+                        h0 = perm[AA] & 15;
+                        h1 = perm[BA] & 15;
+                        h2 = perm[AB] & 15;
+                        h3 = perm[BB] & 15;
+                        h4 = perm[AA + 1] & 15;
+                        h5 = perm[BA + 1] & 15;
+                        h6 = perm[AB + 1] & 15;
+                        h7 = perm[BB + 1] & 15;
+                    }
+                    float y = yAxis.relFloat[j];
+                    float fY = yAxis.fadesFloat[j];
+                    out[index++] = lerp(fZ, lerp(fY, lerp(fX, grad(h0, x, y, z),
+                                    grad(h1, x - 1, y, z)),
+                                lerp(fX, grad(h2, x, y - 1, z),
+                                    grad(h3, x - 1, y - 1, z))),
+                            lerp(fY, lerp(fX, grad(h4, x, y, z - 1),
+                                    grad(h5, x - 1, y, z - 1)),
+                                lerp(fX, grad(h6, x, y - 1, z - 1),
+                                    grad(h7, x - 1, y - 1, z - 1))));
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static Axis axis(Axis last, int start, int count, double frequency, double offset) {
+        if (last != null && last.start == start && last.cells.length == count) {
+            return last;
+        }
+        return new Axis(start, count, frequency, offset);
+    }
+
+    private static float lerp(float x, float y, float z) {
+        return y + x * (z - y);
+    }
+
+    private static float grad(int hash, float x, float y, float z) {
+        return GRAD_U_X[hash] * x + GRAD_U_Y[hash] * y + (GRAD_V_X[hash] * x + GRAD_V_Y[hash] * y + GRAD_V_Z[hash] * z);
+    }
+
+    /**
+     * 一条轴上每一个整数坐标所在的单位方块, 相关坐标与消退曲线.
+     */
+    private static final class Axis {
+        private final int start;
+        private final int[] cells;
+        private final double[] rel;
+        private final double[] fades;
+        private final float[] relFloat;
+        private final float[] fadesFloat;
+
+        private Axis(int start, int count, double frequency, double offset) {
+            this.start = start;
+            this.cells = new int[count];
+            this.rel = new double[count];
+            this.fades = new double[count];
+            this.relFloat = new float[count];
+            this.fadesFloat = new float[count];
+            for (int i = 0; i < count; i++) {
+                // Same operations as PerlinNoiseGenerator#noise, so the double results match exactly
+                double coord = (start + i) * frequency + offset;
+                int floor = NoiseGenerator.floor(coord);
+                cells[i] = floor & 255;
+                rel[i] = coord - floor;
+                fades[i] = NoiseGenerator.fade(rel[i]);
+                relFloat[i] = (float) rel[i];
+                fadesFloat[i] = (float) fades[i];
+            }
+        }
+    }
+}
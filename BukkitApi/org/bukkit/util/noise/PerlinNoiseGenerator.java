@@ -171,6 +171,66 @@ public class PerlinNoiseGenerator extends NoiseGenerator {
                     lerp(fX, grad(perm[AB + 1], x, y - 1, z - 1),
                         grad(perm[BB + 1], x - 1, y - 1, z - 1))));
     }
+    @Override
+    protected void noiseGrid(@NotNull double[] out, @NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs) {
+        if (getClass() != PerlinNoiseGenerator.class) {
+            // Subclasses may compute the noise differently
+            super.noiseGrid(out, xs, ys, zs);
+            return;
+        }
+        //每一个Y坐标与Z坐标所在的单位方块及其中的相关坐标只计算一次
+        // The unit cube and relative coordinates for each Y and Z are computed only once
+        int[] cellY = new int[ys.length];
+        double[] relY = new double[ys.length];
+        double[] fadeY = new double[ys.length];
+        splitAxis(ys, offsetY, cellY, relY, fadeY);
+        int[] cellZ = new int[zs.length];
+        double[] relZ = new double[zs.length];
+        double[] fadeZ = new double[zs.length];
+        splitAxis(zs, offsetZ, cellZ, relZ, fadeZ);
+        int index = 0;
+        for (double xin : xs) {
+            double x = xin + offsetX;
+            int floorX = floor(x);
+            int X = floorX & 255;
+            x -= floorX;
+            double fX = fade(x);
+            int permX = perm[X];
+            int permX1 = perm[X + 1];
+            for (int k = 0; k < zs.length; k++) {
+                int Z = cellZ[k];
+                double z = relZ[k];
+                double fZ = fadeZ[k];
+                for (int j = 0; j < ys.length; j++) {
+                    double y = relY[j];
+                    double fY = fadeY[j];
+                    int A = permX + cellY[j];
+                    int AA = perm[A] + Z;
+                    int AB = perm[A + 1] + Z;
+                    int B = permX1 + cellY[j];
+                    int BA = perm[B] + Z;
+                    int BB = perm[B + 1] + Z;
+                    out[index++] = lerp(fZ, lerp(fY, lerp(fX, grad(perm[AA], x, y, z),
+                                    grad(perm[BA], x - 1, y, z)),
+                                lerp(fX, grad(perm[AB], x, y - 1, z),
+                                    grad(perm[BB], x - 1, y - 1, z))),
+                            lerp(fY, lerp(fX, grad(perm[AA + 1], x, y, z - 1),
+                                    grad(perm[BA + 1], x - 1, y, z - 1)),
+                                lerp(fX, grad(perm[AB + 1], x, y - 1, z - 1),
+                                    grad(perm[BB + 1], x - 1, y - 1, z - 1))));
+                }
+            }
+        }
+    }
+    private static void splitAxis(@NotNull double[] coords, double offset, @NotNull int[] cells, @NotNull double[] rel, @NotNull double[] fades) {
+        for (int i = 0; i < coords.length; i++) {
+            double coord = coords[i] + offset;
+            int floor = floor(coord);
+            cells[i] = floor & 255;
+            rel[i] = coord - floor;
+            fades[i] = fade(rel[i]);
+        }
+    }
     /**
      * 使用特殊的数个倍频和参数产生一个一维坐标的噪音.
      * <p>
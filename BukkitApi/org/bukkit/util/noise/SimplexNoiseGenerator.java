@@ -150,9 +150,35 @@ public class SimplexNoiseGenerator extends PerlinNoiseGenerator {
     }
     @Override
     public double noise(double xin, double yin, double zin) {
-        xin += offsetX;
-        yin += offsetY;
-        zin += offsetZ;
+        return noiseAt(xin + offsetX, yin + offsetY, zin + offsetZ);
+    }
+    @Override
+    protected void noiseGrid(@NotNull double[] out, @NotNull double[] xs, @NotNull double[] ys, @NotNull double[] zs) {
+        if (getClass() != SimplexNoiseGenerator.class) {
+            // Subclasses may compute the noise differently
+            super.noiseGrid(out, xs, ys, zs);
+            return;
+        }
+        // The skew mixes all axes, so only the offsets can be applied per axis
+        double[] offsetYs = new double[ys.length];
+        for (int j = 0; j < ys.length; j++) {
+            offsetYs[j] = ys[j] + offsetY;
+        }
+        double[] offsetZs = new double[zs.length];
+        for (int k = 0; k < zs.length; k++) {
+            offsetZs[k] = zs[k] + offsetZ;
+        }
+        int index = 0;
+        for (double x : xs) {
+            double xin = x + offsetX;
+            for (double zin : offsetZs) {
+                for (double yin : offsetYs) {
+                    out[index++] = noiseAt(xin, yin, zin);
+                }
+            }
+        }
+    }
+    private double noiseAt(double xin, double yin, double zin) {
         double n0, n1, n2, n3; // Noise contributions from the four corners
         // Skew the input space to determine which simplex cell we're in
         double s = (xin + yin + zin) * F3; // Very nice and simple skew factor for 3D